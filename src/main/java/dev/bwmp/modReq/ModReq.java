@@ -2,16 +2,24 @@ package dev.bwmp.modReq;
 
 import dev.bwmp.modReq.config.ConfigManager;
 import dev.bwmp.modReq.database.DatabaseManager;
+import dev.bwmp.modReq.event.RequestEventBus;
+import dev.bwmp.modReq.service.AdmissionControl;
 import dev.bwmp.modReq.service.DiscordService;
 import dev.bwmp.modReq.service.ModRequestService;
+import dev.bwmp.modReq.service.StaffIndex;
+import dev.bwmp.modReq.service.StaffNotifier;
+import io.papermc.paper.plugin.lifecycle.event.types.LifecycleEvents;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public final class ModReq extends JavaPlugin {
 
     private ConfigManager configManager;
     private DatabaseManager databaseManager;
+    private RequestEventBus eventBus;
+    private StaffIndex staffIndex;
     private ModRequestService modRequestService;
     private DiscordService discordService;
+    private AdmissionControl admissionControl;
 
     @Override
     public void onEnable() {
@@ -28,12 +36,30 @@ public final class ModReq extends JavaPlugin {
             return;
         }
 
+        this.eventBus = new RequestEventBus(this);
         this.modRequestService = new ModRequestService(this);
+        try {
+            this.modRequestService.initialize();
+        } catch (Exception e) {
+            getLogger().severe("Failed to load active mod requests. Disabling plugin.");
+            getServer().getPluginManager().disablePlugin(this);
+            return;
+        }
+
         this.discordService = new DiscordService(this);
+        discordService.register(eventBus);
+
+        this.staffIndex = new StaffIndex(this);
+        staffIndex.start();
+        new StaffNotifier(this, staffIndex).register(eventBus);
+
+        this.admissionControl = new AdmissionControl(this);
+        admissionControl.start();
 
         ModReqCommand commandHandler = new ModReqCommand(this);
-        getCommand("modreq").setExecutor(commandHandler);
-        getCommand("modreq").setTabCompleter(commandHandler);
+        getLifecycleManager().registerEventHandler(LifecycleEvents.COMMANDS,
+                event -> commandHandler.register(event.registrar()));
+        getServer().getPluginManager().registerEvents(commandHandler, this);
 
         getLogger().info("ModReq plugin has been enabled!");
         getLogger().info("Database type: " + configManager.getString("database.type", "h2"));
@@ -43,6 +69,14 @@ public final class ModReq extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        if (eventBus != null) {
+            eventBus.shutdown();
+        }
+
+        if (discordService != null) {
+            discordService.shutdown();
+        }
+
         if (databaseManager != null) {
             databaseManager.shutdown();
         }
@@ -58,6 +92,14 @@ public final class ModReq extends JavaPlugin {
         return databaseManager;
     }
 
+    public RequestEventBus getEventBus() {
+        return eventBus;
+    }
+
+    public StaffIndex getStaffIndex() {
+        return staffIndex;
+    }
+
     public ModRequestService getModRequestService() {
         return modRequestService;
     }
@@ -65,4 +107,8 @@ public final class ModReq extends JavaPlugin {
     public DiscordService getDiscordService() {
         return discordService;
     }
+
+    public AdmissionControl getAdmissionControl() {
+        return admissionControl;
+    }
 }
@@ -1,96 +1,260 @@
 package dev.bwmp.modReq;
 
+import com.destroystokyo.paper.event.server.AsyncTabCompleteEvent;
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.builder.RequiredArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+import dev.bwmp.modReq.command.RequestCommand;
+import dev.bwmp.modReq.command.StatusArgument;
 import dev.bwmp.modReq.command.SubCommand;
 import dev.bwmp.modReq.command.subcommands.*;
+import dev.bwmp.modReq.model.ModRequestStatus;
+import dev.bwmp.modReq.service.StaffIndex;
 import dev.bwmp.modReq.util.TextUtil;
-import org.bukkit.command.Command;
-import org.bukkit.command.CommandExecutor;
+import io.papermc.paper.command.brigadier.CommandSourceStack;
+import io.papermc.paper.command.brigadier.Commands;
 import org.bukkit.command.CommandSender;
-import org.bukkit.command.TabCompleter;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.ToIntBiFunction;
 import java.util.stream.Collectors;
 
-public class ModReqCommand implements CommandExecutor, TabCompleter {
+/**
+ * Registers /modreq as a Brigadier command tree and hands each parsed
+ * command's typed arguments to its {@link SubCommand}. Suggestions are
+ * answered from {@link AsyncTabCompleteEvent} so they never run on the server
+ * thread.
+ */
+public class ModReqCommand implements Listener {
+
+	private static final String LABEL = "modreq";
+	private static final List<String> ALIASES = List.of("req", "mr", "ticket");
+	private static final String[] ID_COMMANDS = { "info", "unclaim", "done", "close", "elevate", "teleport" };
 
-	@SuppressWarnings("unused")
 	private final ModReq plugin;
 	private final Map<String, SubCommand> subCommands;
+	private final CreateCommand createCommand;
+	private final ListCommand listCommand;
+	private final ClaimCommand claimCommand;
+	private final NoteCommand noteCommand;
+	private final HelpCommand helpCommand;
 
 	public ModReqCommand(ModReq plugin) {
 		this.plugin = plugin;
 		this.subCommands = new HashMap<>();
+		this.createCommand = new CreateCommand(plugin);
+		this.listCommand = new ListCommand(plugin);
+		this.claimCommand = new ClaimCommand(plugin);
+		this.noteCommand = new NoteCommand(plugin);
+		this.helpCommand = new HelpCommand(plugin, subCommands);
 
-		registerSubCommand(new CreateCommand(plugin));
-		registerSubCommand(new ListCommand(plugin));
+		registerSubCommand(createCommand);
+		registerSubCommand(listCommand);
 		registerSubCommand(new InfoCommand(plugin));
-		registerSubCommand(new ClaimCommand(plugin));
+		registerSubCommand(claimCommand);
 		registerSubCommand(new UnclaimCommand(plugin));
 		registerSubCommand(new DoneCommand(plugin));
 		registerSubCommand(new CloseCommand(plugin));
 		registerSubCommand(new ElevateCommand(plugin));
 		registerSubCommand(new TeleportCommand(plugin));
-		registerSubCommand(new NoteCommand(plugin));
+		registerSubCommand(noteCommand);
 		registerSubCommand(new ReloadCommand(plugin));
-		registerSubCommand(new HelpCommand(plugin, subCommands));
+		registerSubCommand(new StatsCommand(plugin));
+		registerSubCommand(helpCommand);
 	}
 
 	private void registerSubCommand(SubCommand subCommand) {
 		subCommands.put(subCommand.getName().toLowerCase(), subCommand);
 	}
 
-	@Override
-	public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
-		if (args.length == 0) {
-			SubCommand helpCommand = subCommands.get("help");
-			if (helpCommand != null) {
-				return helpCommand.execute(sender, new String[0]);
-			}
-			return true;
+	/**
+	 * Registers the command tree with Paper's command registrar
+	 *
+	 * @param commands The registrar from the COMMANDS lifecycle event
+	 */
+	public void register(Commands commands) {
+		LiteralArgumentBuilder<CommandSourceStack> root = Commands.literal(LABEL)
+				.executes(ctx -> run(ctx, helpCommand, sender -> helpCommand.help(sender, null)))
+				.then(Commands.argument("description", StringArgumentType.greedyString())
+						.executes(this::createFromRoot));
+
+		root.then(subCommand("create")
+				.then(Commands.argument("description", StringArgumentType.greedyString())
+						.executes(ctx -> run(ctx, createCommand, sender -> createCommand.create(sender,
+								StringArgumentType.getString(ctx, "description"))))));
+
+		root.then(subCommand("list")
+				.then(page((ctx, page) -> list(ctx, false, null, null, page)))
+				.then(Commands.literal("all")
+						.executes(ctx -> list(ctx, true, null, null, 1))
+						.then(page((ctx, page) -> list(ctx, true, null, null, page))))
+				.then(Commands.argument("status", new StatusArgument())
+						.executes(ctx -> list(ctx, false, status(ctx), null, 1))
+						.then(page((ctx, page) -> list(ctx, false, status(ctx), null, page))))
+				// Explicit form for players whose name is also a status or "all"
+				.then(Commands.literal("player")
+						.then(playerName()
+								.executes(ctx -> list(ctx, false, null, player(ctx), 1))
+								.then(page((ctx, page) -> list(ctx, false, null, player(ctx), page)))))
+				.then(playerName()
+						.executes(ctx -> list(ctx, false, null, player(ctx), 1))
+						.then(page((ctx, page) -> list(ctx, false, null, player(ctx), page)))));
+
+		for (String name : ID_COMMANDS) {
+			RequestCommand command = (RequestCommand) subCommands.get(name);
+			root.then(subCommand(name)
+					.then(requestId().executes(ctx -> run(ctx, command, sender -> command.execute(sender, id(ctx))))));
 		}
 
-		String subCommandName = args[0].toLowerCase();
-		SubCommand subCommand = subCommands.get(subCommandName);
+		root.then(subCommand("claim")
+				.then(requestId()
+						.executes(ctx -> run(ctx, claimCommand, sender -> claimCommand.claim(sender, id(ctx), false)))
+						.then(Commands.literal("-f")
+								.executes(ctx -> run(ctx, claimCommand,
+										sender -> claimCommand.claim(sender, id(ctx), true))))));
 
-		if (subCommand != null) {
-			if (!subCommand.hasPermission(sender)) {
-				subCommand.sendNoPermission(sender);
-				return true;
-			}
+		root.then(subCommand("note")
+				.then(requestId()
+						.then(Commands.argument("message", StringArgumentType.greedyString())
+								.executes(ctx -> run(ctx, noteCommand, sender -> noteCommand.addNote(sender, id(ctx),
+										StringArgumentType.getString(ctx, "message")))))));
 
-			if (!subCommand.checkPlayer(sender)) {
-				return true;
-			}
+		root.then(subCommand("reload"));
+		root.then(subCommand("stats"));
+
+		root.then(subCommand("help")
+				.then(Commands.argument("command", StringArgumentType.word())
+						.suggests(this::suggest)
+						.executes(ctx -> run(ctx, helpCommand,
+								sender -> helpCommand.help(sender, StringArgumentType.getString(ctx, "command"))))));
+
+		commands.register(root.build(), "Create mod requests and manage them", ALIASES);
+	}
+
+	/**
+	 * A literal for a subcommand. It has no Brigadier requirement, so a sender
+	 * without the permission reaches {@link #run} and is told so instead of
+	 * getting "Unknown or incomplete command". Running it without arguments
+	 * lets the subcommand print its usage.
+	 */
+	private LiteralArgumentBuilder<CommandSourceStack> subCommand(String name) {
+		SubCommand subCommand = subCommands.get(name);
+		return Commands.literal(name)
+				.executes(ctx -> run(ctx, subCommand, sender -> subCommand.execute(sender, new String[0])));
+	}
+
+	private RequiredArgumentBuilder<CommandSourceStack, Integer> requestId() {
+		return Commands.argument("id", IntegerArgumentType.integer(1)).suggests(this::suggest);
+	}
+
+	private RequiredArgumentBuilder<CommandSourceStack, String> playerName() {
+		return Commands.argument("name", StringArgumentType.word()).suggests(this::suggest);
+	}
+
+	private RequiredArgumentBuilder<CommandSourceStack, Integer> page(
+			ToIntBiFunction<CommandContext<CommandSourceStack>, Integer> list) {
+		return Commands.argument("page", IntegerArgumentType.integer(1))
+				.executes(ctx -> list.applyAsInt(ctx, IntegerArgumentType.getInteger(ctx, "page")));
+	}
+
+	private static int id(CommandContext<CommandSourceStack> ctx) {
+		return IntegerArgumentType.getInteger(ctx, "id");
+	}
+
+	private static ModRequestStatus status(CommandContext<CommandSourceStack> ctx) {
+		return ctx.getArgument("status", ModRequestStatus.class);
+	}
+
+	private static String player(CommandContext<CommandSourceStack> ctx) {
+		return StringArgumentType.getString(ctx, "name");
+	}
 
-			String[] subArgs = Arrays.copyOfRange(args, 1, args.length);
-			return subCommand.execute(sender, subArgs);
+	private int list(CommandContext<CommandSourceStack> ctx, boolean showAllStatuses, ModRequestStatus status,
+			String player, int page) {
+		return run(ctx, listCommand, sender -> listCommand.list(sender, showAllStatuses, status, player, page));
+	}
+
+	/**
+	 * Runs a parsed subcommand if the sender has its permission and is a
+	 * player where one is required, telling them otherwise
+	 *
+	 * @param action Calls the subcommand with the parsed arguments
+	 */
+	private int run(CommandContext<CommandSourceStack> ctx, SubCommand subCommand, Consumer<CommandSender> action) {
+		CommandSender sender = ctx.getSource().getSender();
+		if (!subCommand.hasPermission(sender)) {
+			subCommand.sendNoPermission(sender);
+		} else if (subCommand.checkPlayer(sender)) {
+			action.accept(sender);
 		}
+		return Command.SINGLE_SUCCESS;
+	}
 
-		if (!(sender instanceof org.bukkit.entity.Player)) {
+	/**
+	 * /modreq &lt;description&gt;, the shorthand for /modreq create
+	 */
+	private int createFromRoot(CommandContext<CommandSourceStack> ctx) {
+		CommandSender sender = ctx.getSource().getSender();
+		if (!(sender instanceof Player)) {
 			sender.sendMessage(TextUtil.error("Only players can create mod requests!"));
-			return true;
+		} else if (!sender.hasPermission("modreq.use")) {
+			sender.sendMessage(TextUtil.error("You don't have permission to create mod requests!"));
+		} else {
+			createCommand.create(sender, StringArgumentType.getString(ctx, "description"));
 		}
+		return Command.SINGLE_SUCCESS;
+	}
 
-		if (!sender.hasPermission("modreq.use")) {
-			sender.sendMessage(TextUtil.error("You don't have permission to create mod requests!"));
-			return true;
+	/**
+	 * Fallback for clients whose completion request was not answered
+	 * asynchronously
+	 */
+	private CompletableFuture<Suggestions> suggest(CommandContext<CommandSourceStack> ctx,
+			SuggestionsBuilder builder) {
+		String[] args = parseArguments(builder.getInput());
+		if (args != null) {
+			complete(ctx.getSource().getSender(), args).forEach(builder::suggest);
 		}
+		return builder.buildFuture();
+	}
 
-		CreateCommand createCommand = (CreateCommand) subCommands.get("create");
-		if (createCommand != null) {
-			return createCommand.execute(sender, args);
+	@EventHandler(ignoreCancelled = true)
+	public void onAsyncTabComplete(AsyncTabCompleteEvent event) {
+		if (!event.isCommand() || event.isHandled()) {
+			return;
 		}
 
-		return true;
+		String[] args = parseArguments(event.getBuffer());
+		if (args == null) {
+			return;
+		}
+
+		event.setCompletions(complete(event.getSender(), args));
+		event.setHandled(true);
 	}
 
-	@Override
-	public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+	/**
+	 * Completes the last argument. Called off the server thread, so
+	 * permissions and online players are read from the {@link StaffIndex}
+	 * rather than from Bukkit, and the subcommands' completions only read
+	 * thread-safe state.
+	 */
+	public List<String> complete(CommandSender sender, String[] args) {
 		if (args.length == 1) {
 			String partial = args[0].toLowerCase();
 			return subCommands.keySet().stream()
 					.filter(name -> name.startsWith(partial))
-					.filter(name -> subCommands.get(name).hasPermission(sender))
+					.filter(name -> canComplete(sender, subCommands.get(name)))
 					.sorted()
 					.collect(Collectors.toList());
 		}
@@ -99,7 +263,7 @@ public class ModReqCommand implements CommandExecutor, TabCompleter {
 			String subCommandName = args[0].toLowerCase();
 			SubCommand subCommand = subCommands.get(subCommandName);
 
-			if (subCommand != null && subCommand.hasPermission(sender)) {
+			if (subCommand != null && canComplete(sender, subCommand)) {
 				String[] subArgs = Arrays.copyOfRange(args, 1, args.length);
 				return subCommand.getTabCompletions(sender, subArgs);
 			}
@@ -107,4 +271,33 @@ public class ModReqCommand implements CommandExecutor, TabCompleter {
 
 		return new ArrayList<>();
 	}
-}
\ No newline at end of file
+
+	private boolean canComplete(CommandSender sender, SubCommand subCommand) {
+		return plugin.getStaffIndex().hasPermission(sender, subCommand.getPermission());
+	}
+
+	/**
+	 * Splits a typed command line into its arguments
+	 *
+	 * @param buffer The command line, with or without the leading slash
+	 * @return The arguments after the label, the last one possibly empty, or
+	 *         null if the line is not a /modreq command with arguments
+	 */
+	private static String[] parseArguments(String buffer) {
+		String line = buffer.startsWith("/") ? buffer.substring(1) : buffer;
+		int space = line.indexOf(' ');
+		if (space < 0) {
+			return null;
+		}
+
+		String label = line.substring(0, space).toLowerCase(Locale.ROOT);
+		if (label.startsWith("modreq:")) {
+			label = label.substring("modreq:".length());
+		}
+		if (!label.equals(LABEL) && !ALIASES.contains(label)) {
+			return null;
+		}
+
+		return line.substring(space + 1).split(" ", -1);
+	}
+}
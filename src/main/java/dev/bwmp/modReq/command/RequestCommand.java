@@ -0,0 +1,41 @@
+package dev.bwmp.modReq.command;
+
+import dev.bwmp.modReq.util.TextUtil;
+
+import org.bukkit.command.CommandSender;
+
+/**
+ * A subcommand whose only argument is a request ID
+ */
+public abstract class RequestCommand extends SubCommand {
+
+    public RequestCommand(String name, String permission, String description, String usage, boolean requiresPlayer) {
+        super(name, permission, description, usage, requiresPlayer);
+    }
+
+    /**
+     * Execute the subcommand for a parsed request ID
+     * @param sender The command sender, a player if the command requires one
+     * @param requestId The request ID
+     */
+    public abstract void execute(CommandSender sender, int requestId);
+
+    @Override
+    public boolean execute(CommandSender sender, String[] args) {
+        if (args.length != 1) {
+            sendUsage(sender);
+            return true;
+        }
+
+        int requestId;
+        try {
+            requestId = Integer.parseInt(args[0]);
+        } catch (NumberFormatException e) {
+            sender.sendMessage(TextUtil.error("Invalid request ID: " + args[0]));
+            return true;
+        }
+
+        execute(sender, requestId);
+        return true;
+    }
+}
@@ -0,0 +1,84 @@
+package dev.bwmp.modReq.command;
+
+import dev.bwmp.modReq.model.ModRequest;
+import dev.bwmp.modReq.util.TextUtil;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.JoinConfiguration;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.NamedTextColor;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches the rendered list lines of requests. Every change to a request
+ * bumps its updatedAt, so entries are keyed by ID and updatedAt and never
+ * need invalidating. The relative time is not cached because it changes on
+ * its own. Only used from the server thread.
+ */
+public class RequestLineCache {
+
+  private static final int MAX_ENTRIES = 512;
+
+  private record Key(int id, LocalDateTime updatedAt) {
+  }
+
+  private record Lines(Component header, Component description, Component location) {
+  }
+
+  private final Map<Key, Lines> cache = new LinkedHashMap<>(64, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Key, Lines> eldest) {
+      return size() > MAX_ENTRIES;
+    }
+  };
+
+  /**
+   * Renders a request as it appears in /modreq list
+   *
+   * @param request The request to render
+   * @return The request's lines, joined with newlines
+   */
+  public Component render(ModRequest request) {
+    Lines lines = cache.computeIfAbsent(new Key(request.getId(), request.getUpdatedAt()), key -> build(request));
+
+    Component timeAndDesc = Component.text("  ", NamedTextColor.GRAY)
+        .append(TextUtil.relativeTime(request.getCreatedAt(), "&7"))
+        .append(lines.description());
+
+    if (lines.location() == null) {
+      return Component.join(JoinConfiguration.newlines(), lines.header(), timeAndDesc);
+    }
+    return Component.join(JoinConfiguration.newlines(), lines.header(), timeAndDesc, lines.location());
+  }
+
+  private static Lines build(ModRequest request) {
+    Component header = Component
+        .text("#" + request.getId() + " ", NamedTextColor.WHITE)
+        .append(Component.text("[" + request.getStatus().name() + "] ", NamedTextColor.GRAY))
+        .append(Component.text(request.getPlayerName(), NamedTextColor.WHITE));
+
+    if (request.isClaimed()) {
+      header = header
+          .append(Component.text(" (claimed by ", NamedTextColor.GRAY))
+          .append(Component.text(request.getClaimedByName(), NamedTextColor.WHITE))
+          .append(Component.text(")", NamedTextColor.GRAY));
+    }
+
+    header = header
+        .clickEvent(ClickEvent.runCommand("/modreq info " + request.getId()))
+        .hoverEvent(HoverEvent.showText(Component.text("Click to view request details", NamedTextColor.GREEN)));
+
+    Component description = Component.text(" - " + request.getDescription(), NamedTextColor.AQUA);
+
+    Component location = null;
+    if (request.getWorldName() != null) {
+      location = TextUtil.info("  Location: " + request.getWorldName() + " " +
+          String.format("%.0f,%.0f,%.0f", request.getX(), request.getY(), request.getZ()));
+    }
+
+    return new Lines(header, description, location);
+  }
+}
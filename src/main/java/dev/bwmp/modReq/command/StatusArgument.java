@@ -0,0 +1,50 @@
+package dev.bwmp.modReq.command;
+
+import com.mojang.brigadier.arguments.ArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.mojang.brigadier.exceptions.DynamicCommandExceptionType;
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+import dev.bwmp.modReq.model.ModRequestStatus;
+import dev.bwmp.modReq.util.TextUtil;
+import io.papermc.paper.command.brigadier.MessageComponentSerializer;
+import io.papermc.paper.command.brigadier.argument.CustomArgumentType;
+
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Brigadier argument for a request status, typed as a single word
+ */
+public class StatusArgument implements CustomArgumentType.Converted<ModRequestStatus, String> {
+
+  private static final DynamicCommandExceptionType UNKNOWN_STATUS = new DynamicCommandExceptionType(
+      status -> MessageComponentSerializer.message().serialize(TextUtil.error("Unknown status: " + status)));
+
+  @Override
+  public ModRequestStatus convert(String nativeType) throws CommandSyntaxException {
+    try {
+      return ModRequestStatus.valueOf(nativeType.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw UNKNOWN_STATUS.create(nativeType);
+    }
+  }
+
+  @Override
+  public ArgumentType<String> getNativeType() {
+    return StringArgumentType.word();
+  }
+
+  @Override
+  public <S> CompletableFuture<Suggestions> listSuggestions(CommandContext<S> context, SuggestionsBuilder builder) {
+    for (ModRequestStatus status : ModRequestStatus.values()) {
+      String name = status.name().toLowerCase(Locale.ROOT);
+      if (name.startsWith(builder.getRemainingLowerCase())) {
+        builder.suggest(name);
+      }
+    }
+    return builder.buildFuture();
+  }
+}
@@ -1,8 +1,7 @@
 package dev.bwmp.modReq.command.subcommands;
 
 import dev.bwmp.modReq.ModReq;
-import dev.bwmp.modReq.command.SubCommand;
-import dev.bwmp.modReq.model.ModRequest;
+import dev.bwmp.modReq.command.RequestCommand;
 import dev.bwmp.modReq.util.TextUtil;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
@@ -10,7 +9,7 @@ import org.bukkit.entity.Player;
 import java.util.ArrayList;
 import java.util.List;
 
-public class CloseCommand extends SubCommand {
+public class CloseCommand extends RequestCommand {
 
   private final ModReq plugin;
 
@@ -20,33 +19,13 @@ public class CloseCommand extends SubCommand {
   }
 
   @Override
-  public boolean execute(CommandSender sender, String[] args) {
-    if (args.length != 1) {
-      sendUsage(sender);
-      return true;
-    }
-
-    int requestId;
-    try {
-      requestId = Integer.parseInt(args[0]);
-    } catch (NumberFormatException e) {
-      sender.sendMessage(TextUtil.error("Invalid request ID: " + args[0]));
-      return true;
-    }
-
+  public void execute(CommandSender sender, int requestId) {
     Player player = (Player) sender;
 
     plugin.getModRequestService().closeRequest(requestId, player).thenAccept(request -> {
       plugin.getServer().getScheduler().runTask(plugin, () -> {
         if (request != null) {
           player.sendMessage(TextUtil.success("Successfully closed request #" + requestId));
-
-          plugin.getDiscordService().sendRequestClosed(request, player.getName(), request.getNotes());
-
-          plugin.getServer().getOnlinePlayers().stream()
-              .filter(p -> p.hasPermission("modreq.mod") && !p.equals(player))
-              .forEach(
-                  p -> p.sendMessage(TextUtil.prefixed("&f" + player.getName() + " &7closed request #" + requestId)));
         } else {
           player.sendMessage(TextUtil.error("Failed to close request #" + requestId + ". It may not exist."));
         }
@@ -56,27 +35,13 @@ public class CloseCommand extends SubCommand {
       throwable.printStackTrace();
       return null;
     });
-
-    return true;
   }
 
   @Override
   public List<String> getTabCompletions(CommandSender sender, String[] args) {
-    List<String> completions = new ArrayList<>();
-    if (args.length == 1) {
-      try {
-        List<ModRequest> requests = plugin.getModRequestService().getOpenRequests().get();
-        Player player = (Player) sender;
-
-        for (ModRequest request : requests) {
-          if (request.getClaimedBy() != null && request.getClaimedBy().equals(player.getUniqueId())) {
-            completions.add(String.valueOf(request.getId()));
-          }
-        }
-      } catch (Exception e) {
-        plugin.getLogger().warning("Error getting tab completions for unclaim command: " + e.getMessage());
-      }
+    if (args.length == 1 && sender instanceof Player player) {
+      return plugin.getModRequestService().getCompletionIndex().completeClaimed(player.getUniqueId(), args[0]);
     }
-    return completions;
+    return new ArrayList<>();
   }
 }
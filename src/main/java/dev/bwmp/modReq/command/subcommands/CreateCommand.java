@@ -25,28 +25,31 @@ public class CreateCommand extends SubCommand {
       return true;
     }
 
+    create(sender, String.join(" ", args));
+    return true;
+  }
+
+  /**
+   * Creates a request for the sending player at their location
+   *
+   * @param description The description, exactly as typed
+   */
+  public void create(CommandSender sender, String description) {
     Player player = (Player) sender;
-    String description = String.join(" ", args);
 
     if (description.length() > 500) {
       player.sendMessage(TextUtil.error("Description too long! Maximum 500 characters."));
-      return true;
+      return;
+    }
+
+    if (!plugin.getAdmissionControl().tryCreate(player.getUniqueId())) {
+      player.sendMessage(TextUtil.error("You're creating requests too quickly. Please wait a moment."));
+      return;
     }
 
     plugin.getModRequestService().createRequest(player, description).thenAccept(request -> {
       if (request != null) {
         player.sendMessage(TextUtil.success("Your mod request has been created! ID: #" + request.getId()));
-
-        plugin.getDiscordService().sendRequestCreated(request);
-
-        plugin.getServer().getScheduler().runTask(plugin, () -> {
-          plugin.getServer().getOnlinePlayers().stream()
-              .filter(p -> p.hasPermission("modreq.mod"))
-              .forEach(p -> {
-                p.sendMessage(TextUtil.prefixed("&f" + player.getName() + " &7created a new request"));
-                p.playSound(p.getLocation(), org.bukkit.Sound.BLOCK_NOTE_BLOCK_PLING, 1, 1);
-              });
-        });
       } else {
         player.sendMessage(TextUtil.error("Failed to create mod request. Please try again."));
       }
@@ -59,8 +62,6 @@ public class CreateCommand extends SubCommand {
       }
       return null;
     });
-
-    return true;
   }
 
   @Override
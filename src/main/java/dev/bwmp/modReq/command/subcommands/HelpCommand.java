@@ -11,16 +11,28 @@ import java.util.Map;
 
 public class HelpCommand extends SubCommand {
 
+  private final ModReq plugin;
   private final Map<String, SubCommand> subCommands;
 
   public HelpCommand(ModReq plugin, Map<String, SubCommand> subCommands) {
     super("help", null, "Show help for ModReq commands", "/modreq help [command]", false);
+    this.plugin = plugin;
     this.subCommands = subCommands;
   }
 
   @Override
   public boolean execute(CommandSender sender, String[] args) {
-    if (args.length == 0) {
+    help(sender, args.length == 0 ? null : args[0]);
+    return true;
+  }
+
+  /**
+   * Sends the command overview, or the details of one command
+   *
+   * @param commandName The command to describe, or null for the overview
+   */
+  public void help(CommandSender sender, String commandName) {
+    if (commandName == null) {
 
       sender.sendMessage(TextUtil.highlight("=== ModReq Help ==="));
       sender.sendMessage(TextUtil.format("&f/modreq <message> &7- Create a new mod request"));
@@ -37,20 +49,19 @@ public class HelpCommand extends SubCommand {
       }
 
       sender.sendMessage(TextUtil.info("Use &f/modreq help <command> &7for detailed usage."));
-      return true;
+      return;
     }
 
-    String commandName = args[0].toLowerCase();
-    SubCommand subCommand = subCommands.get(commandName);
+    SubCommand subCommand = subCommands.get(commandName.toLowerCase());
 
     if (subCommand == null) {
-      sender.sendMessage(TextUtil.error("Unknown command: " + args[0]));
-      return true;
+      sender.sendMessage(TextUtil.error("Unknown command: " + commandName));
+      return;
     }
 
     if (!subCommand.hasPermission(sender)) {
       sendNoPermission(sender);
-      return true;
+      return;
     }
 
     sender.sendMessage(TextUtil.highlight("=== " + subCommand.getName() + " ==="));
@@ -59,8 +70,6 @@ public class HelpCommand extends SubCommand {
     if (subCommand.getPermission() != null) {
       sender.sendMessage(TextUtil.info("Permission: &f" + subCommand.getPermission()));
     }
-
-    return true;
   }
 
   @Override
@@ -70,7 +79,8 @@ public class HelpCommand extends SubCommand {
       String partial = args[0].toLowerCase();
 
       for (String commandName : subCommands.keySet()) {
-        if (commandName.startsWith(partial) && subCommands.get(commandName).hasPermission(sender)) {
+        if (commandName.startsWith(partial)
+            && plugin.getStaffIndex().hasPermission(sender, subCommands.get(commandName).getPermission())) {
           completions.add(commandName);
         }
       }
@@ -1,12 +1,13 @@
 package dev.bwmp.modReq.command.subcommands;
 
 import dev.bwmp.modReq.ModReq;
-import dev.bwmp.modReq.command.SubCommand;
+import dev.bwmp.modReq.command.RequestCommand;
 import dev.bwmp.modReq.model.ModRequest;
 import dev.bwmp.modReq.model.ModRequestNote;
 import dev.bwmp.modReq.model.ModRequestStatus;
 import dev.bwmp.modReq.util.TextUtil;
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.JoinConfiguration;
 import net.kyori.adventure.text.event.ClickEvent;
 import net.kyori.adventure.text.event.HoverEvent;
 import net.kyori.adventure.text.format.NamedTextColor;
@@ -17,7 +18,7 @@ import org.bukkit.entity.Player;
 import java.util.ArrayList;
 import java.util.List;
 
-public class InfoCommand extends SubCommand {
+public class InfoCommand extends RequestCommand {
 
   private final ModReq plugin;
 
@@ -27,20 +28,7 @@ public class InfoCommand extends SubCommand {
   }
 
   @Override
-  public boolean execute(CommandSender sender, String[] args) {
-    if (args.length != 1) {
-      sendUsage(sender);
-      return true;
-    }
-
-    int requestId;
-    try {
-      requestId = Integer.parseInt(args[0]);
-    } catch (NumberFormatException e) {
-      sender.sendMessage(TextUtil.error("Invalid request ID: " + args[0]));
-      return true;
-    }
-
+  public void execute(CommandSender sender, int requestId) {
     plugin.getModRequestService().getRequestWithNotes(requestId).thenAccept(request -> {
       plugin.getServer().getScheduler().runTask(plugin, () -> {
         if (request == null) {
@@ -64,8 +52,6 @@ public class InfoCommand extends SubCommand {
       throwable.printStackTrace();
       return null;
     });
-
-    return true;
   }
 
   private void displayRequestInfo(CommandSender sender, ModRequest request) {
@@ -77,18 +63,19 @@ public class InfoCommand extends SubCommand {
     boolean isClaimedByUser = isPlayer && request.isClaimed() &&
         ((Player) sender).getUniqueId().equals(request.getClaimedBy());
 
-    sender.sendMessage(TextUtil.highlight("═══ ModReq #" + request.getId() + " ═══"));
-    sender.sendMessage(TextUtil.info("Player: &f" + request.getPlayerName()));
+    List<Component> lines = new ArrayList<>();
+    lines.add(TextUtil.highlight("═══ ModReq #" + request.getId() + " ═══"));
+    lines.add(TextUtil.info("Player: &f" + request.getPlayerName()));
 
     String statusText = statusColor + request.getStatus().name();
     if (request.isClaimed()) {
       statusText += " &7(claimed by &f" + request.getClaimedByName() + "&7)";
     }
-    sender.sendMessage(TextUtil.info("Status: " + statusText));
+    lines.add(TextUtil.info("Status: " + statusText));
 
-    sender.sendMessage(Component.text("Created: ", NamedTextColor.AQUA)
+    lines.add(Component.text("Created: ", NamedTextColor.AQUA)
         .append(TextUtil.relativeTime(request.getCreatedAt(), "&f")));
-    sender.sendMessage(Component.text("Updated: ", NamedTextColor.AQUA)
+    lines.add(Component.text("Updated: ", NamedTextColor.AQUA)
         .append(TextUtil.relativeTime(request.getUpdatedAt(), "&f")));
 
     if (request.getClosedAt() != null) {
@@ -106,11 +93,11 @@ public class InfoCommand extends SubCommand {
             .append(Component.text(request.getClosedByName(), NamedTextColor.WHITE));
       }
       
-      sender.sendMessage(closedComponent);
+      lines.add(closedComponent);
     }
 
-    sender.sendMessage(TextUtil.info("Description:"));
-    sender.sendMessage(TextUtil.format("  &f" + request.getDescription()));
+    lines.add(TextUtil.info("Description:"));
+    lines.add(TextUtil.format("  &f" + request.getDescription()));
 
     if (request.getWorldName() != null) {
       Component locationText = Component.text("Location: ", NamedTextColor.AQUA)
@@ -125,11 +112,11 @@ public class InfoCommand extends SubCommand {
             .decorate(TextDecoration.UNDERLINED);
       }
 
-      sender.sendMessage(locationText);
+      lines.add(locationText);
     }
 
     if (request.getNotes() != null && !request.getNotes().isEmpty()) {
-      sender.sendMessage(TextUtil.info("Notes:"));
+      lines.add(TextUtil.info("Notes:"));
       for (ModRequestNote note : request.getNotes()) {
         Component noteComponent = Component.text("  [", NamedTextColor.GRAY)
             .append(TextUtil.relativeTime(note.getCreatedAt(), "&7"))
@@ -137,10 +124,10 @@ public class InfoCommand extends SubCommand {
             .append(Component.text(note.getAuthorName(), NamedTextColor.WHITE))
             .append(Component.text(": ", NamedTextColor.GRAY))
             .append(Component.text(note.getContent(), NamedTextColor.WHITE));
-        sender.sendMessage(noteComponent);
+        lines.add(noteComponent);
       }
     } else {
-      sender.sendMessage(TextUtil.info("Notes: &8None"));
+      lines.add(TextUtil.info("Notes: &8None"));
     }
 
     if (isPlayer) {
@@ -201,12 +188,13 @@ public class InfoCommand extends SubCommand {
       }
 
       if (hasActions) {
-        sender.sendMessage(Component.empty());
-        sender.sendMessage(Component.text("Actions: ", NamedTextColor.AQUA).append(actionBar));
+        lines.add(Component.empty());
+        lines.add(Component.text("Actions: ", NamedTextColor.AQUA).append(actionBar));
       }
     }
 
-    sender.sendMessage(TextUtil.highlight("═".repeat(20)));
+    lines.add(TextUtil.highlight("═".repeat(20)));
+    sender.sendMessage(Component.join(JoinConfiguration.newlines(), lines));
   }
 
   private String getStatusColor(ModRequestStatus status) {
@@ -226,15 +214,9 @@ public class InfoCommand extends SubCommand {
 
   @Override
   public List<String> getTabCompletions(CommandSender sender, String[] args) {
-    List<String> completions = new ArrayList<>();
-    try {
-      List<ModRequest> requests = plugin.getModRequestService().getOpenRequests().get();
-      for (ModRequest request : requests) {
-        completions.add(String.valueOf(request.getId()));
-      }
-    } catch (Exception e) {
-      plugin.getLogger().warning("Error getting tab completions for claim command: " + e.getMessage());
+    if (args.length == 1) {
+      return plugin.getModRequestService().getCompletionIndex().completeOpen(args[0]);
     }
-    return completions;
+    return new ArrayList<>();
   }
 }
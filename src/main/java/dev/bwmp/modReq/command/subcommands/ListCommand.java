@@ -1,11 +1,14 @@
 package dev.bwmp.modReq.command.subcommands;
 
 import dev.bwmp.modReq.ModReq;
+import dev.bwmp.modReq.command.RequestLineCache;
 import dev.bwmp.modReq.command.SubCommand;
+import dev.bwmp.modReq.database.RequestQuery;
 import dev.bwmp.modReq.model.ModRequest;
 import dev.bwmp.modReq.model.ModRequestStatus;
 import dev.bwmp.modReq.util.TextUtil;
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.JoinConfiguration;
 import net.kyori.adventure.text.event.ClickEvent;
 import net.kyori.adventure.text.event.HoverEvent;
 
@@ -13,16 +16,18 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
+import java.util.UUID;
 import net.kyori.adventure.text.format.NamedTextColor;
 public class ListCommand extends SubCommand {
 
   private final ModReq plugin;
+  private final RequestLineCache lineCache = new RequestLineCache();
 
   public ListCommand(ModReq plugin) {
     super("list", "modreq.use", "List active mod requests. Use 'all' to include completed/closed requests.",
-        "/modreq list [all|status|player] [page]", false);
+        "/modreq list [all|status|player <name>] [page]", false);
     this.plugin = plugin;
   }
 
@@ -30,16 +35,21 @@ public class ListCommand extends SubCommand {
   public boolean execute(CommandSender sender, String[] args) {
     ModRequestStatus filterStatus = null;
     String filterPlayer = null;
-    boolean showAll = sender.hasPermission("modreq.mod");
     boolean showAllStatuses = false;
     int page = 1;
 
-    for (String arg : args) {
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
       if (arg.equalsIgnoreCase("all")) {
         showAllStatuses = true;
         continue;
       }
 
+      if (arg.equalsIgnoreCase("player") && i + 1 < args.length) {
+        filterPlayer = args[++i];
+        continue;
+      }
+
       try {
         int parsedPage = Integer.parseInt(arg);
         if (parsedPage > 0) {
@@ -60,76 +70,101 @@ public class ListCommand extends SubCommand {
       filterPlayer = arg;
     }
 
-    if (!showAll && filterPlayer == null && sender instanceof Player) {
-      filterPlayer = sender.getName();
+    list(sender, showAllStatuses, filterStatus, filterPlayer, page);
+    return true;
+  }
+
+  /**
+   * Sends one page of requests. Senders without modreq.mod who name no
+   * player see their own requests, looked up by UUID rather than by name.
+   *
+   * @param showAllStatuses Whether to include completed and closed requests
+   * @param filterStatus    The status to list, or null
+   * @param filterPlayer    The player whose requests to list, or null
+   * @param page            The page, starting at 1
+   */
+  public void list(CommandSender sender, boolean showAllStatuses, ModRequestStatus filterStatus,
+      String filterPlayer, int page) {
+    UUID ownPlayerId = null;
+    if (!sender.hasPermission("modreq.mod") && filterPlayer == null && sender instanceof Player player) {
+      filterPlayer = player.getName();
+      ownPlayerId = player.getUniqueId();
     }
 
     final String finalFilterPlayer = filterPlayer;
+    final boolean ownList = ownPlayerId != null;
     final ModRequestStatus finalFilterStatus = filterStatus;
     final boolean finalShowAllStatuses = showAllStatuses;
     final int finalPage = page;
 
-    CompletableFuture<List<ModRequest>> requestsFuture;
-    if (finalFilterStatus != null || finalShowAllStatuses) {
-      // User specified a status filter or wants all statuses
-      requestsFuture = plugin.getModRequestService().getRequests(finalFilterStatus, finalFilterPlayer);
-    } else if (finalFilterPlayer != null && !finalFilterPlayer.isEmpty()) {
-      // Viewing a specific player's requests (including self) - show ALL their requests
-      requestsFuture = plugin.getModRequestService().getRequests(null, finalFilterPlayer);
-    } else {
-      // Default case - show only active requests
-      requestsFuture = plugin.getModRequestService().getActiveRequests(finalFilterPlayer);
-    }
+    int pageSize = plugin.getConfigManager().getListPageSize();
 
-    requestsFuture.thenAccept(requests -> {
-      plugin.getServer().getScheduler().runTask(plugin, () -> {
-        if (requests.isEmpty()) {
-          if (finalFilterStatus != null || finalFilterPlayer != null) {
-            sender.sendMessage(TextUtil.info("No mod requests found matching your criteria."));
-          } else {
-            sender.sendMessage(TextUtil.info("No mod requests found."));
-          }
-          return;
-        }
+    if (finalFilterStatus == null && !finalShowAllStatuses
+        && (finalFilterPlayer == null || finalFilterPlayer.isEmpty())) {
+      // Default case - show only active requests, served from memory
+      plugin.getModRequestService().getActiveRequests(finalFilterPlayer).thenAccept(requests -> {
+        plugin.getServer().getScheduler().runTask(plugin, () -> {
+          int totalPages = Math.max(1, (int) Math.ceil((double) requests.size() / pageSize));
+          int currentPage = Math.min(finalPage, totalPages);
+          int startIndex = (currentPage - 1) * pageSize;
+          int endIndex = Math.min(startIndex + pageSize, requests.size());
+
+          displayPaginatedRequests(sender, requests.subList(startIndex, endIndex), currentPage, totalPages,
+              requests.size(), finalFilterStatus, finalFilterPlayer, ownList, finalShowAllStatuses);
+        });
+      }).exceptionally(throwable -> {
+        sender.sendMessage(TextUtil.error("Failed to load mod requests."));
+        throwable.printStackTrace();
+        return null;
+      });
+      return;
+    }
 
-        displayPaginatedRequests(sender, requests, finalPage, finalFilterStatus, finalFilterPlayer,
-            finalShowAllStatuses);
+    // User specified a status filter, wants all statuses, or is viewing a
+    // specific player's requests (including self) - filter and page in SQL
+    RequestQuery query = new RequestQuery();
+    if (finalFilterStatus != null) {
+      query.setStatuses(EnumSet.of(finalFilterStatus));
+    }
+    if (ownList) {
+      query.setPlayerId(ownPlayerId);
+    } else {
+      // Only an explicit "player <name>" filter matches by name substring
+      query.setPlayerName(finalFilterPlayer);
+    }
+    query.setOrder(finalFilterPlayer != null && !finalFilterPlayer.isEmpty()
+        ? RequestQuery.Order.ACTIVE_FIRST
+        : RequestQuery.Order.NEWEST_FIRST);
+    query.setLimit(pageSize);
+
+    plugin.getModRequestService().countRequests(query).thenCompose(total -> {
+      int totalPages = Math.max(1, (int) Math.ceil((double) total / pageSize));
+      int currentPage = Math.min(finalPage, totalPages);
+      query.setOffset((currentPage - 1) * pageSize);
+
+      return plugin.getModRequestService().queryRequests(query).thenAccept(requests -> {
+        plugin.getServer().getScheduler().runTask(plugin, () -> displayPaginatedRequests(sender, requests, currentPage,
+            totalPages, total, finalFilterStatus, finalFilterPlayer, ownList, finalShowAllStatuses));
       });
     }).exceptionally(throwable -> {
       sender.sendMessage(TextUtil.error("Failed to load mod requests."));
       throwable.printStackTrace();
       return null;
     });
-
-    return true;
   }
 
-  private void displayPaginatedRequests(CommandSender sender, List<ModRequest> allRequests, int page,
-      ModRequestStatus filterStatus, String filterPlayer, boolean showAllStatuses) {
-
-    if (filterPlayer != null && !filterPlayer.isEmpty()) {
-      allRequests.sort((r1, r2) -> {
-        boolean r1IsOpen = r1.getStatus() == ModRequestStatus.OPEN || r1.getStatus() == ModRequestStatus.ELEVATED;
-        boolean r2IsOpen = r2.getStatus() == ModRequestStatus.OPEN || r2.getStatus() == ModRequestStatus.ELEVATED;
-
-        if (r1IsOpen && !r2IsOpen) return -1;
-        if (!r1IsOpen && r2IsOpen) return 1;
+  private void displayPaginatedRequests(CommandSender sender, List<ModRequest> pageRequests, int page,
+      int totalPages, int totalRequests, ModRequestStatus filterStatus, String filterPlayer, boolean ownList,
+      boolean showAllStatuses) {
 
-        return r2.getCreatedAt().compareTo(r1.getCreatedAt());
-      });
+    if (totalRequests == 0) {
+      if (filterStatus != null || filterPlayer != null) {
+        sender.sendMessage(TextUtil.info("No mod requests found matching your criteria."));
+      } else {
+        sender.sendMessage(TextUtil.info("No mod requests found."));
+      }
+      return;
     }
-    
-    int pageSize = plugin.getConfigManager().getListPageSize();
-    int totalRequests = allRequests.size();
-    int totalPages = (int) Math.ceil((double) totalRequests / pageSize);
-
-    if (page < 1)
-      page = 1;
-    if (page > totalPages)
-      page = totalPages;
-
-    int startIndex = (page - 1) * pageSize;
-    int endIndex = Math.min(startIndex + pageSize, totalRequests);
 
     String filterDescription = "";
     if (filterStatus != null) {
@@ -144,48 +179,21 @@ public class ListCommand extends SubCommand {
       filterDescription += " [Open First]";
     }
 
-    sender.sendMessage(
+    List<Component> lines = new ArrayList<>();
+    lines.add(
         TextUtil.highlight("=== Mod Requests" + filterDescription + " (Page " + page + "/" + totalPages + ") ==="));
 
-    List<ModRequest> pageRequests = allRequests.subList(startIndex, endIndex);
     for (ModRequest request : pageRequests) {
-      Component requestLine = Component
-          .text("#" + request.getId() + " ", NamedTextColor.WHITE)
-          .append(Component.text("[" + request.getStatus().name() + "] ",
-              NamedTextColor.GRAY))
-          .append(Component.text(request.getPlayerName(), NamedTextColor.WHITE));
-
-      if (request.isClaimed()) {
-        requestLine = requestLine
-            .append(Component.text(" (claimed by ", NamedTextColor.GRAY))
-            .append(Component.text(request.getClaimedByName(), NamedTextColor.WHITE))
-            .append(Component.text(")", NamedTextColor.GRAY));
-      }
-
-      requestLine = requestLine
-          .clickEvent(ClickEvent.runCommand("/modreq info " + request.getId()))
-          .hoverEvent(HoverEvent.showText(
-              Component.text("Click to view request details", NamedTextColor.GREEN)));
-
-      sender.sendMessage(requestLine);
-
-      Component timeAndDesc = Component.text("  ", NamedTextColor.GRAY)
-          .append(TextUtil.relativeTime(request.getCreatedAt(), "&7"))
-          .append(
-              Component.text(" - " + request.getDescription(), NamedTextColor.AQUA));
-      sender.sendMessage(timeAndDesc);
-
-      if (request.getWorldName() != null) {
-        sender.sendMessage(TextUtil.info("  Location: " + request.getWorldName() + " " +
-            String.format("%.0f,%.0f,%.0f", request.getX(), request.getY(), request.getZ())));
-      }
+      lines.add(lineCache.render(request));
     }
 
     if (totalPages > 1) {
       Component navigation = Component.empty();
+      // The sender's own list pages without a name, so it stays on the UUID lookup
+      String linkPlayer = ownList ? null : filterPlayer;
 
       if (page > 1) {
-        String prevCommand = buildPageCommand(page - 1, filterStatus, filterPlayer, showAllStatuses);
+        String prevCommand = buildPageCommand(page - 1, filterStatus, linkPlayer, showAllStatuses);
         navigation = navigation
             .append(Component.text("[← Previous] ", NamedTextColor.YELLOW)
                 .clickEvent(ClickEvent.runCommand(prevCommand))
@@ -198,7 +206,7 @@ public class ListCommand extends SubCommand {
               NamedTextColor.GRAY));
 
       if (page < totalPages) {
-        String nextCommand = buildPageCommand(page + 1, filterStatus, filterPlayer, showAllStatuses);
+        String nextCommand = buildPageCommand(page + 1, filterStatus, linkPlayer, showAllStatuses);
         navigation = navigation
             .append(Component.text("[Next →]", NamedTextColor.YELLOW)
                 .clickEvent(ClickEvent.runCommand(nextCommand))
@@ -206,10 +214,11 @@ public class ListCommand extends SubCommand {
                     Component.text("Go to page " + (page + 1), NamedTextColor.GREEN))));
       }
 
-      sender.sendMessage(navigation);
+      lines.add(navigation);
     }
 
-    sender.sendMessage(TextUtil.info("Showing " + pageRequests.size() + " of " + totalRequests + " requests"));
+    lines.add(TextUtil.info("Showing " + pageRequests.size() + " of " + totalRequests + " requests"));
+    sender.sendMessage(Component.join(JoinConfiguration.newlines(), lines));
   }
 
   private String buildPageCommand(int page, ModRequestStatus filterStatus, String filterPlayer,
@@ -223,7 +232,7 @@ public class ListCommand extends SubCommand {
       command.append(" ").append(filterStatus.name().toLowerCase());
     }
     if (filterPlayer != null && !filterPlayer.isEmpty()) {
-      command.append(" ").append(filterPlayer);
+      command.append(" player ").append(filterPlayer);
     }
 
     command.append(" ").append(page);
@@ -234,6 +243,7 @@ public class ListCommand extends SubCommand {
   @Override
   public List<String> getTabCompletions(CommandSender sender, String[] args) {
     List<String> completions = new ArrayList<>();
+    boolean isMod = plugin.getStaffIndex().hasPermission(sender, "modreq.mod");
 
     if (args.length == 1) {
       String partial = args[0].toLowerCase();
@@ -248,13 +258,17 @@ public class ListCommand extends SubCommand {
         }
       }
 
-      if (sender.hasPermission("modreq.mod")) {
-        plugin.getServer().getOnlinePlayers().stream()
-            .map(Player::getName)
-            .filter(name -> name.toLowerCase().startsWith(partial))
-            .forEach(completions::add);
+      if (isMod) {
+        if ("player".startsWith(partial)) {
+          completions.add("player");
+        }
+        addPlayerNames(completions, partial);
+      }
+    } else if (args.length == 2 && args[0].equalsIgnoreCase("player")) {
+      if (isMod) {
+        addPlayerNames(completions, args[1].toLowerCase());
       }
-    } else if (args.length == 2) {
+    } else if (args.length == 2 || args.length == 3) {
       completions.add("1");
       completions.add("2");
       completions.add("3");
@@ -262,4 +276,12 @@ public class ListCommand extends SubCommand {
 
     return completions;
   }
+
+  private void addPlayerNames(List<String> completions, String partial) {
+    for (Player player : plugin.getStaffIndex().getOnline()) {
+      if (player.getName().toLowerCase().startsWith(partial)) {
+        completions.add(player.getName());
+      }
+    }
+  }
 }
@@ -3,8 +3,6 @@ package dev.bwmp.modReq.command.subcommands;
 import dev.bwmp.modReq.ModReq;
 import dev.bwmp.modReq.command.SubCommand;
 import dev.bwmp.modReq.util.TextUtil;
-import dev.bwmp.modReq.model.ModRequest;
-import dev.bwmp.modReq.model.ModRequestNote;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
@@ -36,29 +34,32 @@ public class NoteCommand extends SubCommand {
       return true;
     }
 
+    addNote(sender, requestId, String.join(" ", Arrays.copyOfRange(args, 1, args.length)));
+    return true;
+  }
+
+  /**
+   * Adds a note to a request as the sending player
+   *
+   * @param noteText The note, exactly as typed
+   */
+  public void addNote(CommandSender sender, int requestId, String noteText) {
     Player player = (Player) sender;
-    String noteText = String.join(" ", Arrays.copyOfRange(args, 1, args.length));
 
     if (noteText.length() > 500) {
       player.sendMessage(TextUtil.error("Note too long! Maximum 500 characters."));
-      return true;
+      return;
     }
 
-    ModRequestNote note = new ModRequestNote();
-    note.setRequestId(requestId);
-    note.setAuthorId(player.getUniqueId());
-    note.setAuthorName(player.getName());
-    note.setContent(noteText);
+    if (!plugin.getAdmissionControl().tryAddNote(player.getUniqueId())) {
+      player.sendMessage(TextUtil.error("You're adding notes too quickly. Please wait a moment."));
+      return;
+    }
 
     plugin.getModRequestService().addNote(requestId, player, noteText).thenAccept(addedNote -> {
       plugin.getServer().getScheduler().runTask(plugin, () -> {
         if (addedNote != null) {
           player.sendMessage(TextUtil.success("Note added to request #" + requestId));
-
-          plugin.getServer().getOnlinePlayers().stream()
-              .filter(p -> p.hasPermission("modreq.mod") && !p.equals(player))
-              .forEach(p -> p.sendMessage(TextUtil.prefixed(
-                  "&f" + player.getName() + " &7added a note to request #" + requestId)));
         } else {
           player.sendMessage(TextUtil.error("Failed to add note to request #" + requestId + ". It may not exist."));
         }
@@ -68,27 +69,13 @@ public class NoteCommand extends SubCommand {
       throwable.printStackTrace();
       return null;
     });
-
-    return true;
   }
 
   @Override
   public List<String> getTabCompletions(CommandSender sender, String[] args) {
-    List<String> completions = new ArrayList<>();
-    if (args.length == 1) {
-      try {
-        List<ModRequest> requests = plugin.getModRequestService().getOpenRequests().get();
-        Player player = (Player) sender;
-
-        for (ModRequest request : requests) {
-          if (request.getClaimedBy() != null && request.getClaimedBy().equals(player.getUniqueId())) {
-            completions.add(String.valueOf(request.getId()));
-          }
-        }
-      } catch (Exception e) {
-        plugin.getLogger().warning("Error getting tab completions for unclaim command: " + e.getMessage());
-      }
+    if (args.length == 1 && sender instanceof Player player) {
+      return plugin.getModRequestService().getCompletionIndex().completeClaimed(player.getUniqueId(), args[0]);
     }
-    return completions;
+    return new ArrayList<>();
   }
 }
@@ -21,6 +21,9 @@ public class ReloadCommand extends SubCommand {
   public boolean execute(CommandSender sender, String[] args) {
     try {
       plugin.getConfigManager().reloadConfig();
+      plugin.getDiscordService().reload();
+      plugin.getAdmissionControl().reload();
+      plugin.getModRequestService().reload();
       sender.sendMessage(TextUtil.success("ModReq configuration reloaded successfully!"));
     } catch (Exception e) {
       sender.sendMessage(TextUtil.error("Failed to reload configuration: " + e.getMessage()));
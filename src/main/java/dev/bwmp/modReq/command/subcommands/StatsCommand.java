@@ -0,0 +1,44 @@
+package dev.bwmp.modReq.command.subcommands;
+
+import dev.bwmp.modReq.ModReq;
+import dev.bwmp.modReq.command.SubCommand;
+import dev.bwmp.modReq.service.ClosedRequestCache;
+import dev.bwmp.modReq.util.TextUtil;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.JoinConfiguration;
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class StatsCommand extends SubCommand {
+
+  private final ModReq plugin;
+
+  public StatsCommand(ModReq plugin) {
+    super("stats", "modreq.admin", "Show cache statistics", "/modreq stats", false);
+    this.plugin = plugin;
+  }
+
+  @Override
+  public boolean execute(CommandSender sender, String[] args) {
+    ClosedRequestCache closedCache = plugin.getModRequestService().getClosedRequestCache();
+    long hits = closedCache.getHits();
+    long lookups = hits + closedCache.getMisses();
+    String hitRate = lookups > 0 ? String.format("%.1f%%", hits * 100.0 / lookups) : "n/a";
+
+    sender.sendMessage(Component.join(JoinConfiguration.newlines(),
+        TextUtil.highlight("=== ModReq Stats ==="),
+        TextUtil.info("Active requests: &f" + plugin.getModRequestService().getActiveRequestCount()),
+        TextUtil.info("Closed request cache: &f" + closedCache.size() + " &7entries, weight &f"
+            + closedCache.getWeight()),
+        TextUtil.info("Closed cache lookups: &f" + hits + " &7hits, &f" + closedCache.getMisses()
+            + " &7misses (&f" + hitRate + "&7)")));
+    return true;
+  }
+
+  @Override
+  public List<String> getTabCompletions(CommandSender sender, String[] args) {
+    return new ArrayList<>();
+  }
+}
@@ -4,8 +4,12 @@ import dev.bwmp.modReq.ModReq;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 
+import java.util.List;
+import java.util.Map;
+
 public class ConfigManager {
 
     private final ModReq plugin;
@@ -46,6 +50,14 @@ public class ConfigManager {
         return config.getBoolean(path, defaultValue);
     }
 
+    public ConfigurationSection getConfigurationSection(String path) {
+        return config.getConfigurationSection(path);
+    }
+
+    public List<Map<?, ?>> getMapList(String path) {
+        return config.getMapList(path);
+    }
+
     public Component getMessageComponent(String key) {
         String message = getString("messages." + key, "Message not found: " + key);
         if (message.contains("<") && message.contains(">")) {
@@ -6,10 +6,15 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.logging.Level;
 
 import com.zaxxer.hikari.HikariConfig;
@@ -19,11 +24,54 @@ import dev.bwmp.modReq.ModReq;
 import dev.bwmp.modReq.model.ModRequest;
 import dev.bwmp.modReq.model.ModRequestNote;
 import dev.bwmp.modReq.model.ModRequestStatus;
+import dev.bwmp.modReq.model.OutboxEntry;
+import dev.bwmp.modReq.util.BoundedVirtualExecutor;
 
 public class DatabaseManager {
 
+    /**
+     * SQL list of the status codes of active (OPEN/ELEVATED) requests
+     */
+    static final String ACTIVE_STATUS_CODES = "(" + ModRequestStatus.OPEN.getCode() + ", "
+            + ModRequestStatus.ELEVATED.getCode() + ")";
+
+    // Fixed lookups, package-private so their plans can be checked in tests
+    static final String REQUESTS_BY_PLAYER_SQL = "SELECT * FROM mod_requests WHERE player_id = ? ORDER BY created_at DESC";
+    static final String REQUESTS_BY_STATUS_SQL = "SELECT * FROM mod_requests WHERE status = ? ORDER BY created_at ASC";
+    static final String ACTIVE_REQUESTS_SQL = "SELECT * FROM mod_requests WHERE status IN " + ACTIVE_STATUS_CODES
+            + " ORDER BY created_at ASC";
+    static final String OPEN_REQUESTS_BY_PLAYER_SQL = "SELECT * FROM mod_requests WHERE player_id = ? AND status IN "
+            + ACTIVE_STATUS_CODES + " ORDER BY created_at DESC";
+    static final String COUNT_OPEN_BY_PLAYER_SQL = "SELECT COUNT(*) FROM mod_requests WHERE player_id = ? AND status IN "
+            + ACTIVE_STATUS_CODES;
+    static final String DUE_OUTBOX_SQL = "SELECT * FROM discord_outbox WHERE next_attempt_at <= ? ORDER BY next_attempt_at ASC, id ASC LIMIT ?";
+    static final String COALESCE_OUTBOX_SQL = "UPDATE discord_outbox SET idempotency_key = ?, event_type = ?, payload = ? WHERE request_id = ? AND webhook = ? AND attempts = 0";
+    static final String DISCORD_MESSAGE_SQL = "SELECT message_id FROM discord_messages WHERE request_id = ? AND webhook = ?";
+    static final String UNCLAIM_SQL = "UPDATE mod_requests SET claimed_by = NULL, claimed_by_name = NULL, updated_at = ? WHERE id = ? AND claimed_by IS NOT NULL";
+
+    /**
+     * Maximum number of request IDs bound into a single note lookup
+     */
+    private static final int NOTE_LOOKUP_CHUNK_SIZE = 500;
+
+    /**
+     * Work that commits or rolls back together with a request change, such as
+     * storing its Discord notifications
+     */
+    @FunctionalInterface
+    public interface ChangeHook {
+
+        /**
+         * @param conn    The connection of the change, inside its transaction
+         * @param request The request as changed, with notes for a transition
+         */
+        void afterChange(Connection conn, ModRequest request) throws SQLException;
+    }
+
     private final ModReq plugin;
     private HikariDataSource dataSource;
+    private BoundedVirtualExecutor executor;
+    private WriteBehindQueue writeBehindQueue;
     private final String databaseType;
 
     public DatabaseManager(ModReq plugin) {
@@ -39,6 +87,14 @@ public class DatabaseManager {
             DatabaseMigrations migrations = new DatabaseMigrations(plugin, this);
             migrations.checkAndMigrate();
 
+            if (plugin.getConfigManager().getBoolean("database.write_behind.enabled", false)) {
+                long flushInterval = plugin.getConfigManager().getInt("database.write_behind.flush_interval_ms", 50);
+                int batchSize = plugin.getConfigManager().getInt("database.write_behind.max_batch_size", 100);
+                this.writeBehindQueue = new WriteBehindQueue(plugin, this, flushInterval, batchSize);
+                plugin.getLogger().info("Write-behind enabled (flush every " + flushInterval + "ms or "
+                        + batchSize + " writes)");
+            }
+
             plugin.getLogger().info("Database initialized successfully using " + databaseType.toUpperCase());
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Failed to initialize database", e);
@@ -73,6 +129,12 @@ public class DatabaseManager {
                 config.setDriverClassName("com.mysql.cj.jdbc.Driver");
                 config.setUsername(username);
                 config.setPassword(password);
+
+                // Let the driver cache prepared statements per connection
+                config.addDataSourceProperty("cachePrepStmts", "true");
+                config.addDataSourceProperty("prepStmtCacheSize", "250");
+                config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+                config.addDataSourceProperty("useServerPrepStmts", "true");
             }
             default -> throw new IllegalArgumentException("Unsupported database type: " + databaseType);
         }
@@ -87,8 +149,13 @@ public class DatabaseManager {
         config.setConnectionTestQuery("SELECT 1");
 
         this.dataSource = new HikariDataSource(config);
+        this.executor = new BoundedVirtualExecutor("ModReq-DB", config.getMaximumPoolSize());
     }
 
+    /**
+     * Creates the base (version 0) schema. Later column type changes are
+     * applied on top of it by {@link DatabaseMigrations}.
+     */
     private void createTables() throws SQLException {
         try (Connection conn = dataSource.getConnection()) {
             String createRequestsTable = """
@@ -145,6 +212,14 @@ public class DatabaseManager {
     }
 
     public void shutdown() {
+        if (writeBehindQueue != null) {
+            writeBehindQueue.shutdown();
+        }
+
+        if (executor != null && !executor.shutdown(5000)) {
+            plugin.getLogger().warning("Timed out waiting for pending database tasks");
+        }
+
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
             plugin.getLogger().info("Database connection pool closed");
@@ -161,35 +236,76 @@ public class DatabaseManager {
         return dataSource.getConnection();
     }
 
+    /**
+     * Gets the configured database type
+     * 
+     * @return "h2" or "mysql"
+     */
+    public String getDatabaseType() {
+        return databaseType;
+    }
+
+    /**
+     * Gets the executor that runs blocking database work. Its concurrency is
+     * bounded by the connection pool size.
+     * 
+     * @return Database executor
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
     public CompletableFuture<ModRequest> createRequest(ModRequest request) {
+        return createRequest(request, null);
+    }
+
+    /**
+     * Inserts a request and runs a hook in the same transaction
+     * 
+     * @param request The request; its ID is set on success
+     * @param hook    Runs after the insert, or null
+     * @return The request
+     */
+    public CompletableFuture<ModRequest> createRequest(ModRequest request, ChangeHook hook) {
         return CompletableFuture.supplyAsync(() -> {
             String sql = """
                     INSERT INTO mod_requests (player_id, player_name, description, status, world_name, x, y, z, yaw, pitch, created_at, updated_at)
                     VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
                     """;
 
-            try (Connection conn = dataSource.getConnection();
-                    PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-
-                stmt.setString(1, request.getPlayerId().toString());
-                stmt.setString(2, request.getPlayerName());
-                stmt.setString(3, request.getDescription());
-                stmt.setString(4, request.getStatus().name());
-                stmt.setString(5, request.getWorldName());
-                stmt.setDouble(6, request.getX());
-                stmt.setDouble(7, request.getY());
-                stmt.setDouble(8, request.getZ());
-                stmt.setFloat(9, request.getYaw());
-                stmt.setFloat(10, request.getPitch());
-                stmt.setTimestamp(11, Timestamp.valueOf(request.getCreatedAt()));
-                stmt.setTimestamp(12, Timestamp.valueOf(request.getUpdatedAt()));
-
-                stmt.executeUpdate();
+            try (Connection conn = dataSource.getConnection()) {
+                conn.setAutoCommit(false);
+                try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    stmt.setBytes(1, UuidCodec.toBytes(request.getPlayerId()));
+                    stmt.setString(2, request.getPlayerName());
+                    stmt.setString(3, request.getDescription());
+                    stmt.setInt(4, request.getStatus().getCode());
+                    stmt.setString(5, request.getWorldName());
+                    stmt.setDouble(6, request.getX());
+                    stmt.setDouble(7, request.getY());
+                    stmt.setDouble(8, request.getZ());
+                    stmt.setFloat(9, request.getYaw());
+                    stmt.setFloat(10, request.getPitch());
+                    stmt.setTimestamp(11, Timestamp.valueOf(request.getCreatedAt()));
+                    stmt.setTimestamp(12, Timestamp.valueOf(request.getUpdatedAt()));
+
+                    stmt.executeUpdate();
+
+                    try (ResultSet keys = stmt.getGeneratedKeys()) {
+                        if (keys.next()) {
+                            request.setId(keys.getInt(1));
+                        }
+                    }
 
-                try (ResultSet keys = stmt.getGeneratedKeys()) {
-                    if (keys.next()) {
-                        request.setId(keys.getInt(1));
+                    if (hook != null) {
+                        hook.afterChange(conn, request);
                     }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
                 }
 
                 return request;
@@ -197,49 +313,121 @@ public class DatabaseManager {
                 plugin.getLogger().log(Level.SEVERE, "Failed to create mod request", e);
                 throw new RuntimeException("Failed to create mod request", e);
             }
-        });
+        }, executor);
     }
 
-    public CompletableFuture<Void> updateRequest(ModRequest request) {
-        return CompletableFuture.runAsync(() -> {
-            String sql = """
-                    UPDATE mod_requests SET
-                        description = ?, status = ?, claimed_by = ?, claimed_by_name = ?,
-                        closed_by = ?, closed_by_name = ?, completed_by = ?, completed_by_name = ?,
-                        world_name = ?, x = ?, y = ?, z = ?, yaw = ?, pitch = ?,
-                        updated_at = ?, closed_at = ?
-                    WHERE id = ?
-                    """;
+    /**
+     * Atomically claims a request
+     * 
+     * @param id        The request ID
+     * @param staffId   The claiming staff member
+     * @param staffName The claiming staff member's name
+     * @param at        The time of the claim
+     * @param force     Whether to take over an existing claim
+     * @return true if the request was claimed
+     */
+    public CompletableFuture<Boolean> claimRequest(int id, UUID staffId, String staffName, LocalDateTime at,
+            boolean force) {
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = claimSql(force);
 
             try (Connection conn = dataSource.getConnection();
                     PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-                stmt.setString(1, request.getDescription());
-                stmt.setString(2, request.getStatus().name());
-                stmt.setString(3, request.getClaimedBy() != null ? request.getClaimedBy().toString() : null);
-                stmt.setString(4, request.getClaimedByName());
-                stmt.setString(5, request.getClosedBy() != null ? request.getClosedBy().toString() : null);
-                stmt.setString(6, request.getClosedByName());
-                stmt.setString(7, request.getCompletedBy() != null ? request.getCompletedBy().toString() : null);
-                stmt.setString(8, request.getCompletedByName());
-                stmt.setString(9, request.getWorldName());
-                stmt.setDouble(10, request.getX());
-                stmt.setDouble(11, request.getY());
-                stmt.setDouble(12, request.getZ());
-                stmt.setFloat(13, request.getYaw());
-                stmt.setFloat(14, request.getPitch());
-                stmt.setTimestamp(15, Timestamp.valueOf(request.getUpdatedAt()));
-                stmt.setTimestamp(16, request.getClosedAt() != null ? Timestamp.valueOf(request.getClosedAt()) : null);
-                stmt.setInt(17, request.getId());
+                stmt.setBytes(1, UuidCodec.toBytes(staffId));
+                stmt.setString(2, staffName);
+                stmt.setTimestamp(3, Timestamp.valueOf(at));
+                stmt.setInt(4, id);
 
-                stmt.executeUpdate();
+                return stmt.executeUpdate() > 0;
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to claim mod request", e);
+                throw new RuntimeException("Failed to claim mod request", e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Atomically releases the claim on a request
+     * 
+     * @param id The request ID
+     * @param at The time of the change
+     * @return true if the request was claimed and is now unclaimed
+     */
+    public CompletableFuture<Boolean> unclaimRequest(int id, LocalDateTime at) {
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = UNCLAIM_SQL;
+
+            try (Connection conn = dataSource.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                stmt.setTimestamp(1, Timestamp.valueOf(at));
+                stmt.setInt(2, id);
+
+                return stmt.executeUpdate() > 0;
             } catch (SQLException e) {
-                plugin.getLogger().log(Level.SEVERE, "Failed to update mod request", e);
-                throw new RuntimeException("Failed to update mod request", e);
+                plugin.getLogger().log(Level.SEVERE, "Failed to unclaim mod request", e);
+                throw new RuntimeException("Failed to unclaim mod request", e);
             }
-        });
+        }, executor);
     }
 
+    /**
+     * Atomically moves an active (OPEN/ELEVATED) request to a new status
+     * 
+     * @param id        The request ID
+     * @param target    The new status
+     * @param actorId   Who completed or closed the request (ignored for
+     *                  other statuses)
+     * @param actorName The actor's name
+     * @param at        The time of the change
+     * @param hook      Runs in the same transaction after a successful
+     *                  update, with the row read back; or null
+     * @return true if the request was active and has been transitioned
+     */
+    public CompletableFuture<Boolean> transitionRequest(int id, ModRequestStatus target, UUID actorId,
+            String actorName, LocalDateTime at, ChangeHook hook) {
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = transitionSql(target);
+
+            try (Connection conn = dataSource.getConnection()) {
+                conn.setAutoCommit(false);
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    int index = 1;
+                    stmt.setInt(index++, target.getCode());
+                    if (target == ModRequestStatus.COMPLETED || target == ModRequestStatus.CLOSED) {
+                        stmt.setBytes(index++, UuidCodec.toBytes(actorId));
+                        stmt.setString(index++, actorName);
+                        stmt.setTimestamp(index++, Timestamp.valueOf(at));
+                    }
+                    stmt.setTimestamp(index++, Timestamp.valueOf(at));
+                    stmt.setInt(index, id);
+
+                    boolean updated = stmt.executeUpdate() > 0;
+                    if (updated && hook != null) {
+                        hook.afterChange(conn, readRequestWithNotes(conn, id));
+                    }
+                    conn.commit();
+                    return updated;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to transition mod request", e);
+                throw new RuntimeException("Failed to transition mod request", e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Gets a mod request by ID. Notes are not loaded.
+     * 
+     * @param id The request ID
+     * @return The request, or null if it does not exist
+     */
     public CompletableFuture<ModRequest> getRequest(int id) {
         return CompletableFuture.supplyAsync(() -> {
             String sql = "SELECT * FROM mod_requests WHERE id = ?";
@@ -251,10 +439,7 @@ public class DatabaseManager {
 
                 try (ResultSet rs = stmt.executeQuery()) {
                     if (rs.next()) {
-                        ModRequest request = mapResultSetToRequest(rs);
-                        // Load notes
-                        request.setNotes(getRequestNotesSync(id));
-                        return request;
+                        return mapResultSetToRequest(rs);
                     }
                 }
 
@@ -263,95 +448,341 @@ public class DatabaseManager {
                 plugin.getLogger().log(Level.SEVERE, "Failed to get mod request", e);
                 throw new RuntimeException("Failed to get mod request", e);
             }
-        });
+        }, executor);
+    }
+
+    /**
+     * Gets a mod request by ID together with its notes in a single query
+     * 
+     * @param id The request ID
+     * @return The request with notes, or null if it does not exist
+     */
+    public CompletableFuture<ModRequest> getRequestWithNotes(int id) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection conn = dataSource.getConnection()) {
+                return readRequestWithNotes(conn, id);
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to get mod request with notes", e);
+                throw new RuntimeException("Failed to get mod request with notes", e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Loads the notes of many requests at once
+     * 
+     * @param requestIds The request IDs
+     * @return Notes per request ID, oldest first. Requests without notes are
+     *         absent from the map.
+     */
+    public CompletableFuture<Map<Integer, List<ModRequestNote>>> loadNotes(int[] requestIds) {
+        if (requestIds.length == 0) {
+            return CompletableFuture.completedFuture(new HashMap<>());
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection conn = dataSource.getConnection()) {
+                return loadNotesSync(conn, requestIds);
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to load notes", e);
+                throw new RuntimeException("Failed to load notes", e);
+            }
+        }, executor);
     }
 
     public CompletableFuture<List<ModRequest>> getRequestsByPlayer(UUID playerId) {
         return CompletableFuture.supplyAsync(() -> {
-            String sql = "SELECT * FROM mod_requests WHERE player_id = ? ORDER BY created_at DESC";
+            String sql = REQUESTS_BY_PLAYER_SQL;
 
             try (Connection conn = dataSource.getConnection();
                     PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-                stmt.setString(1, playerId.toString());
+                stmt.setBytes(1, UuidCodec.toBytes(playerId));
 
                 List<ModRequest> requests = new ArrayList<>();
                 try (ResultSet rs = stmt.executeQuery()) {
                     while (rs.next()) {
-                        ModRequest request = mapResultSetToRequest(rs);
-                        request.setNotes(getRequestNotesSync(request.getId()));
-                        requests.add(request);
+                        requests.add(mapResultSetToRequest(rs));
                     }
                 }
 
+                attachNotes(conn, requests);
                 return requests;
             } catch (SQLException e) {
                 plugin.getLogger().log(Level.SEVERE, "Failed to get player requests", e);
                 throw new RuntimeException("Failed to get player requests", e);
             }
-        });
+        }, executor);
     }
 
     public CompletableFuture<List<ModRequest>> getRequestsByStatus(ModRequestStatus status) {
         return CompletableFuture.supplyAsync(() -> {
-            String sql = "SELECT * FROM mod_requests WHERE status = ? ORDER BY created_at ASC";
+            String sql = REQUESTS_BY_STATUS_SQL;
 
             try (Connection conn = dataSource.getConnection();
                     PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-                stmt.setString(1, status.name());
+                stmt.setInt(1, status.getCode());
 
                 List<ModRequest> requests = new ArrayList<>();
                 try (ResultSet rs = stmt.executeQuery()) {
                     while (rs.next()) {
-                        ModRequest request = mapResultSetToRequest(rs);
-                        request.setNotes(getRequestNotesSync(request.getId()));
-                        requests.add(request);
+                        requests.add(mapResultSetToRequest(rs));
                     }
                 }
 
+                attachNotes(conn, requests);
                 return requests;
             } catch (SQLException e) {
                 plugin.getLogger().log(Level.SEVERE, "Failed to get requests by status", e);
                 throw new RuntimeException("Failed to get requests by status", e);
             }
-        });
+        }, executor);
+    }
+
+    /**
+     * Gets every request that is still active (OPEN or ELEVATED)
+     * 
+     * @return Active requests ordered by creation time
+     */
+    public CompletableFuture<List<ModRequest>> getActiveRequests() {
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = ACTIVE_REQUESTS_SQL;
+
+            try (Connection conn = dataSource.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                List<ModRequest> requests = new ArrayList<>();
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        requests.add(mapResultSetToRequest(rs));
+                    }
+                }
+
+                attachNotes(conn, requests);
+                return requests;
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to get active requests", e);
+                throw new RuntimeException("Failed to get active requests", e);
+            }
+        }, executor);
     }
 
     public CompletableFuture<List<ModRequest>> getOpenRequestsByPlayer(UUID playerId) {
         return CompletableFuture.supplyAsync(() -> {
-            String sql = "SELECT * FROM mod_requests WHERE player_id = ? AND status IN ('OPEN', 'CLAIMED', 'ELEVATED') ORDER BY created_at DESC";
+            String sql = OPEN_REQUESTS_BY_PLAYER_SQL;
 
             try (Connection conn = dataSource.getConnection();
                     PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-                stmt.setString(1, playerId.toString());
+                stmt.setBytes(1, UuidCodec.toBytes(playerId));
 
                 List<ModRequest> requests = new ArrayList<>();
                 try (ResultSet rs = stmt.executeQuery()) {
                     while (rs.next()) {
-                        ModRequest request = mapResultSetToRequest(rs);
-                        request.setNotes(getRequestNotesSync(request.getId()));
-                        requests.add(request);
+                        requests.add(mapResultSetToRequest(rs));
                     }
                 }
 
+                attachNotes(conn, requests);
                 return requests;
             } catch (SQLException e) {
                 plugin.getLogger().log(Level.SEVERE, "Failed to get open player requests", e);
                 throw new RuntimeException("Failed to get open player requests", e);
             }
-        });
+        }, executor);
+    }
+
+    /**
+     * Runs a filtered, ordered and paginated request lookup in SQL. Notes are
+     * not loaded.
+     * 
+     * @param query The query to run
+     * @return The matching page of requests
+     */
+    public CompletableFuture<List<ModRequest>> queryRequests(RequestQuery query) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<Object> params = new ArrayList<>();
+            String sql = querySql(query, params);
+
+            try (Connection conn = dataSource.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                bindParameters(stmt, params);
+
+                List<ModRequest> requests = new ArrayList<>();
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        requests.add(mapResultSetToRequest(rs));
+                    }
+                }
+
+                return requests;
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to query requests", e);
+                throw new RuntimeException("Failed to query requests", e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Counts all rows matching a query's filters, ignoring its ordering,
+     * limit, offset and cursor
+     * 
+     * @param query The query to count
+     * @return Number of matching requests
+     */
+    public CompletableFuture<Integer> countRequests(RequestQuery query) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<Object> params = new ArrayList<>();
+            String sql = countSql(query, params);
+
+            try (Connection conn = dataSource.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                bindParameters(stmt, params);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        return rs.getInt(1);
+                    }
+                }
+
+                return 0;
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to count requests", e);
+                throw new RuntimeException("Failed to count requests", e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Builds the conditional UPDATE of {@link #claimRequest}
+     */
+    static String claimSql(boolean force) {
+        return "UPDATE mod_requests SET claimed_by = ?, claimed_by_name = ?, updated_at = ? WHERE id = ?"
+                + (force ? "" : " AND claimed_by IS NULL");
+    }
+
+    /**
+     * Builds the conditional UPDATE of {@link #transitionRequest}
+     */
+    static String transitionSql(ModRequestStatus target) {
+        String assignments = switch (target) {
+            case COMPLETED -> "status = ?, completed_by = ?, completed_by_name = ?, closed_at = ?, updated_at = ?";
+            case CLOSED -> "status = ?, closed_by = ?, closed_by_name = ?, closed_at = ?, updated_at = ?";
+            default -> "status = ?, updated_at = ?";
+        };
+        return "UPDATE mod_requests SET " + assignments + " WHERE id = ? AND status IN " + ACTIVE_STATUS_CODES;
+    }
+
+    /**
+     * Builds the SELECT for {@link #queryRequests(RequestQuery)}
+     * 
+     * @param params Receives the values to bind, in order
+     */
+    static String querySql(RequestQuery query, List<Object> params) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM mod_requests");
+        appendWhere(sql, params, query, true);
+        appendOrder(sql, query);
+
+        if (query.getLimit() > 0) {
+            sql.append(" LIMIT ?");
+            params.add(query.getLimit());
+        }
+        if (query.getOffset() > 0) {
+            if (query.getLimit() <= 0) {
+                sql.append(" LIMIT ").append(Integer.MAX_VALUE);
+            }
+            sql.append(" OFFSET ?");
+            params.add(query.getOffset());
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Builds the COUNT for {@link #countRequests(RequestQuery)}
+     * 
+     * @param params Receives the values to bind, in order
+     */
+    static String countSql(RequestQuery query, List<Object> params) {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM mod_requests");
+        appendWhere(sql, params, query, false);
+        return sql.toString();
+    }
+
+    private static void appendWhere(StringBuilder sql, List<Object> params, RequestQuery query,
+            boolean includeCursor) {
+        List<String> conditions = new ArrayList<>();
+
+        if (!query.getStatuses().isEmpty()) {
+            StringBuilder in = new StringBuilder("status IN (");
+            boolean first = true;
+            for (ModRequestStatus status : query.getStatuses()) {
+                in.append(first ? "?" : ", ?");
+                params.add(status.getCode());
+                first = false;
+            }
+            conditions.add(in.append(")").toString());
+        }
+
+        if (query.getPlayerId() != null) {
+            conditions.add("player_id = ?");
+            params.add(UuidCodec.toBytes(query.getPlayerId()));
+        }
+
+        if (query.getPlayerName() != null && !query.getPlayerName().isEmpty()) {
+            conditions.add("LOWER(player_name) LIKE ? ESCAPE '!'");
+            params.add("%" + escapeLike(query.getPlayerName().toLowerCase()) + "%");
+        }
+
+        if (includeCursor && query.hasCursor()) {
+            String op = switch (query.getOrder()) {
+                case NEWEST_FIRST -> "<";
+                case OLDEST_FIRST -> ">";
+                case ACTIVE_FIRST -> throw new IllegalArgumentException("Cursor pagination is not supported for "
+                        + query.getOrder());
+            };
+            conditions.add("(created_at " + op + " ? OR (created_at = ? AND id " + op + " ?))");
+            Timestamp after = Timestamp.valueOf(query.getAfterCreatedAt());
+            params.add(after);
+            params.add(after);
+            params.add(query.getAfterId());
+        }
+
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+    }
+
+    private static void appendOrder(StringBuilder sql, RequestQuery query) {
+        switch (query.getOrder()) {
+            case NEWEST_FIRST -> sql.append(" ORDER BY created_at DESC, id DESC");
+            case OLDEST_FIRST -> sql.append(" ORDER BY created_at ASC, id ASC");
+            case ACTIVE_FIRST -> sql.append(
+                    " ORDER BY CASE WHEN status IN " + ACTIVE_STATUS_CODES
+                            + " THEN 0 ELSE 1 END, created_at DESC, id DESC");
+        }
+    }
+
+    private static void bindParameters(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            stmt.setObject(i + 1, params.get(i));
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
     }
 
     public CompletableFuture<Integer> countOpenRequestsByPlayer(UUID playerId) {
         return CompletableFuture.supplyAsync(() -> {
-            String sql = "SELECT COUNT(*) FROM mod_requests WHERE player_id = ? AND status IN ('OPEN', 'CLAIMED', 'ELEVATED')";
+            String sql = COUNT_OPEN_BY_PLAYER_SQL;
 
             try (Connection conn = dataSource.getConnection();
                     PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-                stmt.setString(1, playerId.toString());
+                stmt.setBytes(1, UuidCodec.toBytes(playerId));
 
                 try (ResultSet rs = stmt.executeQuery()) {
                     if (rs.next()) {
@@ -364,10 +795,14 @@ public class DatabaseManager {
                 plugin.getLogger().log(Level.SEVERE, "Failed to count player requests", e);
                 throw new RuntimeException("Failed to count player requests", e);
             }
-        });
+        }, executor);
     }
 
     public CompletableFuture<ModRequestNote> addNote(ModRequestNote note) {
+        if (writeBehindQueue != null) {
+            return writeBehindQueue.enqueueNote(note);
+        }
+
         return CompletableFuture.supplyAsync(() -> {
             String sql = "INSERT INTO mod_request_notes (request_id, author_id, author_name, content, created_at) VALUES (?, ?, ?, ?, ?)";
 
@@ -393,52 +828,287 @@ public class DatabaseManager {
                 plugin.getLogger().log(Level.SEVERE, "Failed to add note", e);
                 throw new RuntimeException("Failed to add note", e);
             }
-        });
+        }, executor);
+    }
+
+    /**
+     * Gets outbox entries whose next attempt is due, oldest first
+     * 
+     * @param limit Maximum number of entries to return
+     * @return The due entries
+     */
+    public CompletableFuture<List<OutboxEntry>> getDueOutboxEntries(int limit) {
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = DUE_OUTBOX_SQL;
+
+            try (Connection conn = dataSource.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                stmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+                stmt.setInt(2, limit);
+
+                List<OutboxEntry> entries = new ArrayList<>();
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        entries.add(mapResultSetToOutboxEntry(rs));
+                    }
+                }
+
+                return entries;
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to get due outbox entries", e);
+                throw new RuntimeException("Failed to get due outbox entries", e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Removes a delivered outbox entry. The entry is kept if it was coalesced
+     * with a newer event while it was being delivered.
+     * 
+     * @param entry The delivered entry
+     */
+    public CompletableFuture<Void> deleteOutboxEntry(OutboxEntry entry) {
+        return CompletableFuture.runAsync(() -> {
+            String sql = "DELETE FROM discord_outbox WHERE id = ? AND idempotency_key = ?";
+
+            try (Connection conn = dataSource.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                stmt.setLong(1, entry.getId());
+                stmt.setString(2, entry.getIdempotencyKey());
+                stmt.executeUpdate();
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to delete outbox entry", e);
+                throw new RuntimeException("Failed to delete outbox entry", e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Stores a notification in the Discord outbox on the caller's connection,
+     * typically inside the transaction of the change it reports
+     * 
+     * @param entry    The entry to store; its ID is set if a row is inserted
+     * @param coalesce Whether to fold the entry into a pending entry for the
+     *                 same request and webhook that has not been attempted yet
+     * @return false if an entry with the same idempotency key already exists
+     */
+    public boolean storeOutboxEntry(Connection conn, OutboxEntry entry, boolean coalesce) throws SQLException {
+        try {
+            if (coalesce && coalesceOutboxEntry(conn, entry)) {
+                return true;
+            }
+            insertOutboxEntry(conn, entry);
+            return true;
+        } catch (SQLException e) {
+            if (e.getSQLState() != null && e.getSQLState().startsWith("23")) {
+                // Same event raised twice; it is already pending
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private boolean coalesceOutboxEntry(Connection conn, OutboxEntry entry) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(COALESCE_OUTBOX_SQL)) {
+            stmt.setString(1, entry.getIdempotencyKey());
+            stmt.setString(2, entry.getEventType());
+            stmt.setString(3, entry.getPayload());
+            stmt.setInt(4, entry.getRequestId());
+            stmt.setString(5, entry.getWebhook());
+
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    private void insertOutboxEntry(Connection conn, OutboxEntry entry) throws SQLException {
+        String sql = "INSERT INTO discord_outbox (idempotency_key, request_id, event_type, webhook, payload, attempts, next_attempt_at, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setString(1, entry.getIdempotencyKey());
+            stmt.setInt(2, entry.getRequestId());
+            stmt.setString(3, entry.getEventType());
+            stmt.setString(4, entry.getWebhook());
+            stmt.setString(5, entry.getPayload());
+            stmt.setInt(6, entry.getAttempts());
+            stmt.setTimestamp(7, Timestamp.valueOf(entry.getNextAttemptAt()));
+            stmt.setTimestamp(8, Timestamp.valueOf(entry.getCreatedAt()));
+
+            stmt.executeUpdate();
+
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    entry.setId(keys.getLong(1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the Discord message posted for a request on a webhook
+     * 
+     * @return The message ID, or null if none was posted
+     */
+    public CompletableFuture<String> getDiscordMessageId(int requestId, String webhook) {
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = DISCORD_MESSAGE_SQL;
+
+            try (Connection conn = dataSource.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                stmt.setInt(1, requestId);
+                stmt.setString(2, webhook);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        return rs.getString(1);
+                    }
+                }
+
+                return null;
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to get Discord message ID", e);
+                throw new RuntimeException("Failed to get Discord message ID", e);
+            }
+        }, executor);
+    }
+
+    public CompletableFuture<Void> saveDiscordMessageId(int requestId, String webhook, String messageId) {
+        return CompletableFuture.runAsync(() -> {
+            String sql = "INSERT INTO discord_messages (request_id, webhook, message_id) VALUES (?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE message_id = VALUES(message_id)";
+
+            try (Connection conn = dataSource.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                stmt.setInt(1, requestId);
+                stmt.setString(2, webhook);
+                stmt.setString(3, messageId);
+                stmt.executeUpdate();
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to save Discord message ID", e);
+                throw new RuntimeException("Failed to save Discord message ID", e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Records a failed delivery attempt
+     * 
+     * @param entry The entry, with attempts and next attempt time already
+     *              updated
+     */
+    public CompletableFuture<Void> rescheduleOutboxEntry(OutboxEntry entry) {
+        return CompletableFuture.runAsync(() -> {
+            String sql = "UPDATE discord_outbox SET attempts = ?, next_attempt_at = ? WHERE id = ?";
+
+            try (Connection conn = dataSource.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                stmt.setInt(1, entry.getAttempts());
+                stmt.setTimestamp(2, Timestamp.valueOf(entry.getNextAttemptAt()));
+                stmt.setLong(3, entry.getId());
+                stmt.executeUpdate();
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to reschedule outbox entry", e);
+                throw new RuntimeException("Failed to reschedule outbox entry", e);
+            }
+        }, executor);
     }
 
-    private List<ModRequestNote> getRequestNotesSync(int requestId) throws SQLException {
-        String sql = "SELECT * FROM mod_request_notes WHERE request_id = ? ORDER BY created_at ASC";
+    private void attachNotes(Connection conn, List<ModRequest> requests) throws SQLException {
+        if (requests.isEmpty()) {
+            return;
+        }
 
-        try (Connection conn = dataSource.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+        int[] ids = requests.stream().mapToInt(ModRequest::getId).toArray();
+        Map<Integer, List<ModRequestNote>> notes = loadNotesSync(conn, ids);
+        for (ModRequest request : requests) {
+            request.setNotes(notes.getOrDefault(request.getId(), new ArrayList<>()));
+        }
+    }
 
-            stmt.setInt(1, requestId);
+    /**
+     * Builds the note lookup for a chunk of request IDs
+     * 
+     * @param count Number of request ID placeholders
+     */
+    static String notesSql(int count) {
+        return "SELECT * FROM mod_request_notes WHERE request_id IN ("
+                + String.join(", ", Collections.nCopies(count, "?"))
+                + ") ORDER BY request_id, created_at ASC, id ASC";
+    }
+
+    private ModRequest readRequestWithNotes(Connection conn, int id) throws SQLException {
+        String sql = "SELECT r.*, n.id AS note_id, n.request_id AS note_request_id, n.author_id AS note_author_id, "
+                + "n.author_name AS note_author_name, n.content AS note_content, n.created_at AS note_created_at "
+                + "FROM mod_requests r LEFT JOIN mod_request_notes n ON n.request_id = r.id "
+                + "WHERE r.id = ? ORDER BY n.created_at ASC, n.id ASC";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, id);
 
+            ModRequest request = null;
             List<ModRequestNote> notes = new ArrayList<>();
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    notes.add(mapResultSetToNote(rs));
+                    if (request == null) {
+                        request = mapResultSetToRequest(rs);
+                    }
+                    rs.getInt("note_id");
+                    if (!rs.wasNull()) {
+                        notes.add(mapResultSetToNote(rs, "note_"));
+                    }
                 }
             }
 
-            return notes;
+            if (request != null) {
+                request.setNotes(notes);
+            }
+            return request;
         }
     }
 
+    private Map<Integer, List<ModRequestNote>> loadNotesSync(Connection conn, int[] requestIds) throws SQLException {
+        Map<Integer, List<ModRequestNote>> notes = new HashMap<>();
+
+        for (int start = 0; start < requestIds.length; start += NOTE_LOOKUP_CHUNK_SIZE) {
+            int end = Math.min(requestIds.length, start + NOTE_LOOKUP_CHUNK_SIZE);
+            String sql = notesSql(end - start);
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = start; i < end; i++) {
+                    stmt.setInt(i - start + 1, requestIds[i]);
+                }
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        ModRequestNote note = mapResultSetToNote(rs, "");
+                        notes.computeIfAbsent(note.getRequestId(), k -> new ArrayList<>()).add(note);
+                    }
+                }
+            }
+        }
+
+        return notes;
+    }
+
     private ModRequest mapResultSetToRequest(ResultSet rs) throws SQLException {
         ModRequest request = new ModRequest();
         request.setId(rs.getInt("id"));
-        request.setPlayerId(UUID.fromString(rs.getString("player_id")));
+        request.setPlayerId(UuidCodec.fromBytes(rs.getBytes("player_id")));
         request.setPlayerName(rs.getString("player_name"));
         request.setDescription(rs.getString("description"));
-        request.setStatus(ModRequestStatus.valueOf(rs.getString("status")));
+        request.setStatus(ModRequestStatus.fromCode(rs.getInt("status")));
 
-        String claimedByStr = rs.getString("claimed_by");
-        if (claimedByStr != null) {
-            request.setClaimedBy(UUID.fromString(claimedByStr));
-        }
+        request.setClaimedBy(UuidCodec.fromBytes(rs.getBytes("claimed_by")));
         request.setClaimedByName(rs.getString("claimed_by_name"));
 
-        String closedByStr = rs.getString("closed_by");
-        if (closedByStr != null) {
-            request.setClosedBy(UUID.fromString(closedByStr));
-        }
+        request.setClosedBy(UuidCodec.fromBytes(rs.getBytes("closed_by")));
         request.setClosedByName(rs.getString("closed_by_name"));
 
-        String completedByStr = rs.getString("completed_by");
-        if (completedByStr != null) {
-            request.setCompletedBy(UUID.fromString(completedByStr));
-        }
+        request.setCompletedBy(UuidCodec.fromBytes(rs.getBytes("completed_by")));
         request.setCompletedByName(rs.getString("completed_by_name"));
 
         request.setWorldName(rs.getString("world_name"));
@@ -466,19 +1136,38 @@ public class DatabaseManager {
         return request;
     }
 
-    private ModRequestNote mapResultSetToNote(ResultSet rs) throws SQLException {
+    private ModRequestNote mapResultSetToNote(ResultSet rs, String prefix) throws SQLException {
         ModRequestNote note = new ModRequestNote();
-        note.setId(rs.getInt("id"));
-        note.setRequestId(rs.getInt("request_id"));
-        note.setAuthorId(UUID.fromString(rs.getString("author_id")));
-        note.setAuthorName(rs.getString("author_name"));
-        note.setContent(rs.getString("content"));
+        note.setId(rs.getInt(prefix + "id"));
+        note.setRequestId(rs.getInt(prefix + "request_id"));
+        note.setAuthorId(UUID.fromString(rs.getString(prefix + "author_id")));
+        note.setAuthorName(rs.getString(prefix + "author_name"));
+        note.setContent(rs.getString(prefix + "content"));
 
-        Timestamp createdAt = rs.getTimestamp("created_at");
+        Timestamp createdAt = rs.getTimestamp(prefix + "created_at");
         if (createdAt != null) {
             note.setCreatedAt(createdAt.toLocalDateTime());
         }
 
         return note;
     }
+
+    private OutboxEntry mapResultSetToOutboxEntry(ResultSet rs) throws SQLException {
+        OutboxEntry entry = new OutboxEntry();
+        entry.setId(rs.getLong("id"));
+        entry.setIdempotencyKey(rs.getString("idempotency_key"));
+        entry.setRequestId(rs.getInt("request_id"));
+        entry.setEventType(rs.getString("event_type"));
+        entry.setWebhook(rs.getString("webhook"));
+        entry.setPayload(rs.getString("payload"));
+        entry.setAttempts(rs.getInt("attempts"));
+        entry.setNextAttemptAt(rs.getTimestamp("next_attempt_at").toLocalDateTime());
+
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        if (createdAt != null) {
+            entry.setCreatedAt(createdAt.toLocalDateTime());
+        }
+
+        return entry;
+    }
 }
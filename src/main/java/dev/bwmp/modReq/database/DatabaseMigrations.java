@@ -1,20 +1,29 @@
 package dev.bwmp.modReq.database;
 
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
 import java.util.logging.Level;
 
 import dev.bwmp.modReq.ModReq;
+import dev.bwmp.modReq.model.ModRequestStatus;
 
 public class DatabaseMigrations {
 
     private final ModReq plugin;
     private final DatabaseManager databaseManager;
 
-    private static final int CURRENT_SCHEMA_VERSION = 3;
+    private static final int CURRENT_SCHEMA_VERSION = 7;
+
+    private static final String[] UUID_COLUMNS = { "player_id", "claimed_by", "closed_by", "completed_by" };
+    private static final int BACKFILL_CHUNK_SIZE = 1000;
 
     public DatabaseMigrations(ModReq plugin, DatabaseManager databaseManager) {
         this.plugin = plugin;
@@ -31,7 +40,6 @@ public class DatabaseMigrations {
             plugin.getLogger()
                     .info("Migrating database from version " + currentVersion + " to " + CURRENT_SCHEMA_VERSION);
             performMigrations(currentVersion);
-            updateSchemaVersion(CURRENT_SCHEMA_VERSION);
             plugin.getLogger().info("Database migration completed successfully");
         }
     }
@@ -92,8 +100,15 @@ public class DatabaseMigrations {
                 case 1 -> migrateToVersion1();
                 case 2 -> migrateToVersion2();
                 case 3 -> migrateToVersion3();
+                case 4 -> migrateToVersion4();
+                case 5 -> migrateToVersion5();
+                case 6 -> migrateToVersion6();
+                case 7 -> migrateToVersion7();
                 default -> plugin.getLogger().warning("Unknown migration version: " + version);
             }
+
+            // Record each step so a failure later on resumes from here
+            updateSchemaVersion(version);
         }
     }
 
@@ -148,4 +163,369 @@ public class DatabaseMigrations {
             throw e;
         }
     }
+
+    /**
+     * Migration to version 4: Store UUID columns as BINARY(16) and status as a
+     * small integer code. Existing rows are backfilled in chunks.
+     * <p>
+     * MySQL commits every ALTER on its own, so a failed run can leave some
+     * columns converted and others not. Every step checks the columns it works
+     * on, and a rerun resumes where the last run stopped.
+     */
+    private void migrateToVersion4() throws SQLException {
+        try (Connection conn = databaseManager.getConnection();
+                Statement stmt = conn.createStatement()) {
+
+            for (String column : UUID_COLUMNS) {
+                if (isText(getColumnType(conn, "mod_requests", column))
+                        && getColumnType(conn, "mod_requests", column + "_bin") == null) {
+                    stmt.executeUpdate("ALTER TABLE mod_requests ADD COLUMN " + column + "_bin BINARY(16)");
+                }
+            }
+            if (isText(getColumnType(conn, "mod_requests", "status"))
+                    && getColumnType(conn, "mod_requests", "status_code") == null) {
+                stmt.executeUpdate("ALTER TABLE mod_requests ADD COLUMN status_code TINYINT");
+            }
+
+            // Legacy columns whose values have not been moved over yet
+            List<String> pendingColumns = new ArrayList<>();
+            for (String column : UUID_COLUMNS) {
+                if (getColumnType(conn, "mod_requests", column + "_bin") != null
+                        && isText(getColumnType(conn, "mod_requests", column))) {
+                    pendingColumns.add(column);
+                }
+            }
+            boolean statusPending = getColumnType(conn, "mod_requests", "status_code") != null
+                    && isText(getColumnType(conn, "mod_requests", "status"));
+
+            if (!pendingColumns.isEmpty() || statusPending) {
+                int converted = backfillVersion4(conn, pendingColumns, statusPending);
+                plugin.getLogger().info("Converted " + converted + " requests to binary UUIDs and status codes");
+
+                for (String index : new String[] { "idx_player_id", "idx_status", "idx_claimed_by", "idx_closed_by",
+                        "idx_completed_by", "idx_requests_closed_by", "idx_requests_completed_by" }) {
+                    dropIndexIfExists(conn, stmt, "mod_requests", index);
+                }
+            }
+
+            for (String column : UUID_COLUMNS) {
+                replaceColumn(conn, stmt, column + "_bin", column);
+            }
+            replaceColumn(conn, stmt, "status_code", "status");
+
+            if (isNullable(conn, "mod_requests", "player_id")) {
+                if (isMySql()) {
+                    stmt.executeUpdate("ALTER TABLE mod_requests MODIFY player_id BINARY(16) NOT NULL");
+                } else {
+                    stmt.executeUpdate("ALTER TABLE mod_requests ALTER COLUMN player_id SET NOT NULL");
+                }
+            }
+            if (isNullable(conn, "mod_requests", "status")) {
+                if (isMySql()) {
+                    stmt.executeUpdate("ALTER TABLE mod_requests MODIFY status TINYINT NOT NULL DEFAULT 0");
+                } else {
+                    stmt.executeUpdate("ALTER TABLE mod_requests ALTER COLUMN status SET DEFAULT 0");
+                    stmt.executeUpdate("ALTER TABLE mod_requests ALTER COLUMN status SET NOT NULL");
+                }
+            }
+
+            // player_id and status are indexed by the composite indices of
+            // version 5, which always runs next
+            createIndexIfMissing(conn, stmt, "mod_requests", "idx_claimed_by", "claimed_by");
+            createIndexIfMissing(conn, stmt, "mod_requests", "idx_closed_by", "closed_by");
+            createIndexIfMissing(conn, stmt, "mod_requests", "idx_completed_by", "completed_by");
+
+            plugin.getLogger().info("Migration to version 4: Converted UUID and status columns to compact types");
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to migrate to version 4", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Swaps a converted column in for its legacy column, if that has not
+     * happened yet
+     */
+    private void replaceColumn(Connection conn, Statement stmt, String converted, String legacy)
+            throws SQLException {
+        if (getColumnType(conn, "mod_requests", converted) == null) {
+            return;
+        }
+        if (getColumnType(conn, "mod_requests", legacy) != null) {
+            stmt.executeUpdate("ALTER TABLE mod_requests DROP COLUMN " + legacy);
+        }
+        renameColumn(stmt, "mod_requests", converted, legacy);
+    }
+
+    /**
+     * Migration to version 5: Replace single-column indices with composite
+     * indices matching the actual query shapes
+     */
+    private void migrateToVersion5() throws SQLException {
+        try (Connection conn = databaseManager.getConnection();
+                Statement stmt = conn.createStatement()) {
+
+            // status filter ordered by created_at (status lists, active request load)
+            createIndexIfMissing(conn, stmt, "mod_requests", "idx_requests_status_created",
+                    "status, created_at, id");
+            // per-player quota checks and open request lookups
+            createIndexIfMissing(conn, stmt, "mod_requests", "idx_requests_player_status", "player_id, status");
+            // unfiltered newest-first listing and its seek cursor
+            createIndexIfMissing(conn, stmt, "mod_requests", "idx_requests_created_id", "created_at, id");
+            // notes of a request in creation order; also backs the request_id foreign key
+            createIndexIfMissing(conn, stmt, "mod_request_notes", "idx_notes_request_created",
+                    "request_id, created_at");
+
+            // Prefixes of the composite indices above, or exact duplicates
+            dropIndexIfExists(conn, stmt, "mod_requests", "idx_status");
+            dropIndexIfExists(conn, stmt, "mod_requests", "idx_player_id");
+            dropIndexIfExists(conn, stmt, "mod_requests", "idx_created_at");
+            dropIndexIfExists(conn, stmt, "mod_requests", "idx_requests_updated_at");
+            dropIndexIfExists(conn, stmt, "mod_request_notes", "idx_request_id");
+
+            plugin.getLogger().info("Migration to version 5: Added composite indices for list and quota queries");
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to migrate to version 5", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Copies the legacy VARCHAR UUID and status values into the new columns,
+     * one committed chunk at a time. Rows already copied by an earlier,
+     * interrupted run are simply copied again.
+     *
+     * @param uuidColumns Legacy UUID columns to copy into their _bin columns
+     * @param status      Whether to copy status into status_code
+     * @return Number of rows converted
+     */
+    private int backfillVersion4(Connection conn, List<String> uuidColumns, boolean status) throws SQLException {
+        List<String> selected = new ArrayList<>(uuidColumns);
+        List<String> assignments = new ArrayList<>();
+        for (String column : uuidColumns) {
+            assignments.add(column + "_bin = ?");
+        }
+        if (status) {
+            selected.add("status");
+            assignments.add("status_code = ?");
+        }
+
+        String selectSql = "SELECT id, " + String.join(", ", selected)
+                + " FROM mod_requests WHERE id > ? ORDER BY id LIMIT ?";
+        String updateSql = "UPDATE mod_requests SET " + String.join(", ", assignments) + " WHERE id = ?";
+
+        int converted = 0;
+        int lastId = 0;
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+
+        try (PreparedStatement select = conn.prepareStatement(selectSql);
+                PreparedStatement update = conn.prepareStatement(updateSql)) {
+            while (true) {
+                select.setInt(1, lastId);
+                select.setInt(2, BACKFILL_CHUNK_SIZE);
+
+                int rows = 0;
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        lastId = rs.getInt("id");
+                        int index = 1;
+                        for (String column : uuidColumns) {
+                            UUID value = parseUuid(rs.getString(column), lastId);
+                            if (value == null && "player_id".equals(column)) {
+                                value = new UUID(0, 0);
+                            }
+                            update.setBytes(index++, UuidCodec.toBytes(value));
+                        }
+                        if (status) {
+                            update.setInt(index++, parseStatus(rs.getString("status")).getCode());
+                        }
+                        update.setInt(index, lastId);
+                        update.addBatch();
+                        rows++;
+                    }
+                }
+
+                if (rows == 0) {
+                    break;
+                }
+
+                update.executeBatch();
+                conn.commit();
+                converted += rows;
+            }
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+
+        return converted;
+    }
+
+    private UUID parseUuid(String value, int requestId) {
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Request #" + requestId + " has an invalid UUID '" + value + "', clearing it");
+            return null;
+        }
+    }
+
+    private static ModRequestStatus parseStatus(String value) {
+        try {
+            return ModRequestStatus.valueOf(value);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return ModRequestStatus.OPEN;
+        }
+    }
+
+    /**
+     * Migration to version 6: Add the persistent outbox for Discord
+     * notifications
+     */
+    private void migrateToVersion6() throws SQLException {
+        try (Connection conn = databaseManager.getConnection();
+                Statement stmt = conn.createStatement()) {
+
+            stmt.executeUpdate("""
+                    CREATE TABLE IF NOT EXISTS discord_outbox (
+                        id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                        idempotency_key VARCHAR(100) NOT NULL,
+                        request_id INT NOT NULL,
+                        event_type VARCHAR(20) NOT NULL,
+                        webhook VARCHAR(64) NOT NULL,
+                        payload TEXT NOT NULL,
+                        attempts INT NOT NULL DEFAULT 0,
+                        next_attempt_at TIMESTAMP NOT NULL,
+                        created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                        CONSTRAINT uq_outbox_idempotency_key UNIQUE (idempotency_key)
+                    )
+                    """);
+            // drainer scan for entries that are due
+            createIndexIfMissing(conn, stmt, "discord_outbox", "idx_outbox_next_attempt", "next_attempt_at, id");
+
+            plugin.getLogger().info("Migration to version 6: Added Discord notification outbox");
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to migrate to version 6", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Migration to version 7: Remember the Discord message posted for each
+     * request so later events can edit it
+     */
+    private void migrateToVersion7() throws SQLException {
+        try (Connection conn = databaseManager.getConnection();
+                Statement stmt = conn.createStatement()) {
+
+            stmt.executeUpdate("""
+                    CREATE TABLE IF NOT EXISTS discord_messages (
+                        request_id INT NOT NULL,
+                        webhook VARCHAR(64) NOT NULL,
+                        message_id VARCHAR(32) NOT NULL,
+                        PRIMARY KEY (request_id, webhook)
+                    )
+                    """);
+            // coalescing lookup for pending notifications of a request
+            createIndexIfMissing(conn, stmt, "discord_outbox", "idx_outbox_request_webhook", "request_id, webhook");
+
+            plugin.getLogger().info("Migration to version 7: Added Discord message tracking");
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to migrate to version 7", e);
+            throw e;
+        }
+    }
+
+    private boolean isMySql() {
+        return "mysql".equals(databaseManager.getDatabaseType());
+    }
+
+    private void renameColumn(Statement stmt, String table, String from, String to) throws SQLException {
+        if (isMySql()) {
+            stmt.executeUpdate("ALTER TABLE " + table + " RENAME COLUMN " + from + " TO " + to);
+        } else {
+            stmt.executeUpdate("ALTER TABLE " + table + " ALTER COLUMN " + from + " RENAME TO " + to);
+        }
+    }
+
+    private static boolean isText(Integer type) {
+        return type != null && (type == Types.VARCHAR || type == Types.CHAR || type == Types.NVARCHAR
+                || type == Types.LONGVARCHAR);
+    }
+
+    /**
+     * Checks whether a column accepts NULL. Checks both the given and the
+     * upper-case spelling, like {@link #getColumnType}.
+     */
+    private static boolean isNullable(Connection conn, String table, String column) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        for (String[] names : new String[][] { { table, column },
+                { table.toUpperCase(), column.toUpperCase() } }) {
+            try (ResultSet rs = meta.getColumns(conn.getCatalog(), null, names[0], names[1])) {
+                if (rs.next()) {
+                    return rs.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the JDBC type of a column, or null if it does not exist. Checks both
+     * the given and the upper-case spelling, since H2 stores identifiers
+     * upper-case.
+     */
+    private static Integer getColumnType(Connection conn, String table, String column) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        for (String[] names : new String[][] { { table, column },
+                { table.toUpperCase(), column.toUpperCase() } }) {
+            try (ResultSet rs = meta.getColumns(conn.getCatalog(), null, names[0], names[1])) {
+                if (rs.next()) {
+                    return rs.getInt("DATA_TYPE");
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean indexExists(Connection conn, String table, String index) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        for (String name : new String[] { table, table.toUpperCase() }) {
+            try (ResultSet rs = meta.getIndexInfo(conn.getCatalog(), null, name, false, false)) {
+                while (rs.next()) {
+                    if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private void dropIndexIfExists(Connection conn, Statement stmt, String table, String index)
+            throws SQLException {
+        if (!indexExists(conn, table, index)) {
+            return;
+        }
+
+        if (isMySql()) {
+            stmt.executeUpdate("DROP INDEX " + index + " ON " + table);
+        } else {
+            stmt.executeUpdate("DROP INDEX IF EXISTS " + index);
+        }
+    }
+
+    private static void createIndexIfMissing(Connection conn, Statement stmt, String table, String index,
+            String columns) throws SQLException {
+        if (!indexExists(conn, table, index)) {
+            stmt.executeUpdate("CREATE INDEX " + index + " ON " + table + "(" + columns + ")");
+        }
+    }
 }
@@ -0,0 +1,124 @@
+package dev.bwmp.modReq.database;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
+
+import dev.bwmp.modReq.model.ModRequestStatus;
+
+/**
+ * Describes a filtered, ordered and paginated lookup of mod requests that is
+ * executed entirely in SQL by {@link DatabaseManager#queryRequests}.
+ */
+public class RequestQuery {
+
+    public enum Order {
+        /**
+         * Most recently created first
+         */
+        NEWEST_FIRST,
+
+        /**
+         * Oldest created first
+         */
+        OLDEST_FIRST,
+
+        /**
+         * Active (OPEN/ELEVATED) requests first, then newest first
+         */
+        ACTIVE_FIRST
+    }
+
+    private final Set<ModRequestStatus> statuses = EnumSet.noneOf(ModRequestStatus.class);
+    private UUID playerId;
+    private String playerName;
+    private Order order = Order.NEWEST_FIRST;
+    private int limit;
+    private int offset;
+    private LocalDateTime afterCreatedAt;
+    private int afterId;
+
+    public Set<ModRequestStatus> getStatuses() {
+        return statuses;
+    }
+
+    /**
+     * Restricts results to the given statuses. An empty set matches every status.
+     */
+    public void setStatuses(Set<ModRequestStatus> statuses) {
+        this.statuses.clear();
+        this.statuses.addAll(statuses);
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public void setPlayerId(UUID playerId) {
+        this.playerId = playerId;
+    }
+
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    /**
+     * Restricts results to players whose name contains the given text
+     * (case-insensitive)
+     */
+    public void setPlayerName(String playerName) {
+        this.playerName = playerName;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    public void setOrder(Order order) {
+        this.order = order;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Maximum number of rows to return, or 0 for no limit
+     */
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public void setOffset(int offset) {
+        this.offset = offset;
+    }
+
+    public LocalDateTime getAfterCreatedAt() {
+        return afterCreatedAt;
+    }
+
+    public int getAfterId() {
+        return afterId;
+    }
+
+    /**
+     * Continues after the given row (seek pagination). Only supported for
+     * {@link Order#NEWEST_FIRST} and {@link Order#OLDEST_FIRST}.
+     *
+     * @param createdAt The creation time of the last row already seen
+     * @param id        The ID of the last row already seen
+     */
+    public void setAfter(LocalDateTime createdAt, int id) {
+        this.afterCreatedAt = createdAt;
+        this.afterId = id;
+    }
+
+    public boolean hasCursor() {
+        return afterCreatedAt != null;
+    }
+}
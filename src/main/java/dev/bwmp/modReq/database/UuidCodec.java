@@ -0,0 +1,46 @@
+package dev.bwmp.modReq.database;
+
+import java.util.UUID;
+
+/**
+ * Converts UUIDs to and from their 16-byte BINARY(16) column representation
+ */
+final class UuidCodec {
+
+    private UuidCodec() {
+    }
+
+    static byte[] toBytes(UUID uuid) {
+        if (uuid == null) {
+            return null;
+        }
+
+        byte[] bytes = new byte[16];
+        writeLong(bytes, 0, uuid.getMostSignificantBits());
+        writeLong(bytes, 8, uuid.getLeastSignificantBits());
+        return bytes;
+    }
+
+    static UUID fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != 16) {
+            return null;
+        }
+
+        return new UUID(readLong(bytes, 0), readLong(bytes, 8));
+    }
+
+    private static void writeLong(byte[] bytes, int offset, long value) {
+        for (int i = 7; i >= 0; i--) {
+            bytes[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+}
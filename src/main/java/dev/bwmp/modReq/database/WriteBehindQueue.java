@@ -0,0 +1,211 @@
+package dev.bwmp.modReq.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+
+import dev.bwmp.modReq.ModReq;
+import dev.bwmp.modReq.model.ModRequestNote;
+
+/**
+ * Optional write-behind mode for note inserts. Notes are queued in order and a
+ * single writer thread flushes them as one JDBC batch in one transaction every
+ * flush interval or once the batch is full. Each caller's future completes
+ * when the batch containing its note commits. If a batch fails, its notes are
+ * retried one by one so that only the offending note's future fails.
+ * <p>
+ * Request mutations are not queued: claims and status changes are conditional
+ * UPDATEs whose outcome the caller needs immediately.
+ */
+public class WriteBehindQueue {
+
+    private static final String INSERT_NOTE_SQL = "INSERT INTO mod_request_notes (request_id, author_id, author_name, content, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private record PendingNote(ModRequestNote note, CompletableFuture<ModRequestNote> future) {
+    }
+
+    private final ModReq plugin;
+    private final DatabaseManager databaseManager;
+    private final long flushIntervalMillis;
+    private final int maxBatchSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchFull = lock.newCondition();
+    private List<PendingNote> notes = new ArrayList<>();
+    private volatile boolean running = true;
+    private final Thread writer;
+
+    public WriteBehindQueue(ModReq plugin, DatabaseManager databaseManager, long flushIntervalMillis,
+            int maxBatchSize) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        this.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.writer = Thread.ofPlatform().daemon().name("ModReq-WriteBehind").start(this::run);
+    }
+
+    /**
+     * Queues a note insert. The note's ID is assigned when the batch commits.
+     */
+    public CompletableFuture<ModRequestNote> enqueueNote(ModRequestNote note) {
+        CompletableFuture<ModRequestNote> future = new CompletableFuture<>();
+
+        lock.lock();
+        try {
+            if (!running) {
+                future.completeExceptionally(new IllegalStateException("Write-behind queue is shut down"));
+                return future;
+            }
+
+            notes.add(new PendingNote(note, future));
+            signalIfFull();
+        } finally {
+            lock.unlock();
+        }
+        return future;
+    }
+
+    /**
+     * Stops the writer after flushing everything still queued
+     */
+    public void shutdown() {
+        lock.lock();
+        try {
+            running = false;
+            batchFull.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            writer.join(10000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void signalIfFull() {
+        if (notes.size() >= maxBatchSize) {
+            batchFull.signal();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            List<PendingNote> batchNotes;
+            boolean stopping;
+            boolean interrupted = false;
+
+            lock.lock();
+            try {
+                if (running && notes.size() < maxBatchSize) {
+                    batchFull.await(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+                interrupted = true;
+            } finally {
+                stopping = !running;
+                batchNotes = notes;
+                notes = new ArrayList<>();
+                lock.unlock();
+            }
+
+            if (interrupted) {
+                IllegalStateException failure = new IllegalStateException("Write-behind writer was interrupted");
+                batchNotes.forEach(pending -> pending.future().completeExceptionally(failure));
+                return;
+            }
+
+            if (!batchNotes.isEmpty()) {
+                flush(batchNotes);
+            }
+
+            if (stopping) {
+                return;
+            }
+        }
+    }
+
+    private void flush(List<PendingNote> batchNotes) {
+        try {
+            commit(batchNotes);
+        } catch (SQLException e) {
+            if (batchNotes.size() == 1) {
+                fail(batchNotes.get(0), e);
+                return;
+            }
+
+            // One bad note, such as one for a deleted request, must not take
+            // the rest of the batch down with it
+            plugin.getLogger().log(Level.WARNING,
+                    "Write-behind batch failed, retrying its " + batchNotes.size() + " notes one by one", e);
+            for (PendingNote pending : batchNotes) {
+                try {
+                    commit(List.of(pending));
+                    pending.future().complete(pending.note());
+                } catch (SQLException single) {
+                    fail(pending, single);
+                }
+            }
+            return;
+        }
+
+        batchNotes.forEach(pending -> pending.future().complete(pending.note()));
+    }
+
+    private void commit(List<PendingNote> batchNotes) throws SQLException {
+        try (Connection conn = databaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                writeNotes(conn, batchNotes);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private void fail(PendingNote pending, SQLException e) {
+        plugin.getLogger().log(Level.SEVERE, "Failed to add note to request #" + pending.note().getRequestId(), e);
+        pending.future().completeExceptionally(new RuntimeException("Failed to add note", e));
+    }
+
+    private void writeNotes(Connection conn, List<PendingNote> batchNotes) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_NOTE_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (PendingNote pending : batchNotes) {
+                ModRequestNote note = pending.note();
+                stmt.setInt(1, note.getRequestId());
+                stmt.setString(2, note.getAuthorId().toString());
+                stmt.setString(3, note.getAuthorName());
+                stmt.setString(4, note.getContent());
+                stmt.setTimestamp(5, Timestamp.valueOf(note.getCreatedAt()));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                for (PendingNote pending : batchNotes) {
+                    if (!keys.next()) {
+                        break;
+                    }
+                    pending.note().setId(keys.getInt(1));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package dev.bwmp.modReq.event;
+
+import dev.bwmp.modReq.model.ModRequest;
+import dev.bwmp.modReq.model.ModRequestNote;
+
+/**
+ * A note was added to a request
+ *
+ * @param note    The persisted note
+ * @param request The request including the new note, or null if the request
+ *                is no longer active
+ */
+public record NoteAddedEvent(ModRequestNote note, ModRequest request) implements RequestEvent {
+
+    public NoteAddedEvent {
+        request = RequestEvent.snapshot(request);
+    }
+
+    @Override
+    public int requestId() {
+        return note.getRequestId();
+    }
+}
@@ -0,0 +1,26 @@
+package dev.bwmp.modReq.event;
+
+import java.util.UUID;
+
+import dev.bwmp.modReq.model.ModRequest;
+
+/**
+ * A staff member claimed a request
+ *
+ * @param request   The request after the claim
+ * @param staffId   The staff member's UUID
+ * @param staffName The staff member's name
+ * @param forced    Whether an existing claim was overridden
+ */
+public record RequestClaimedEvent(ModRequest request, UUID staffId, String staffName, boolean forced)
+        implements RequestEvent {
+
+    public RequestClaimedEvent {
+        request = RequestEvent.snapshot(request);
+    }
+
+    @Override
+    public int requestId() {
+        return request.getId();
+    }
+}
@@ -0,0 +1,20 @@
+package dev.bwmp.modReq.event;
+
+import dev.bwmp.modReq.model.ModRequest;
+
+/**
+ * A player created a new mod request
+ *
+ * @param request The created request
+ */
+public record RequestCreatedEvent(ModRequest request) implements RequestEvent {
+
+    public RequestCreatedEvent {
+        request = RequestEvent.snapshot(request);
+    }
+
+    @Override
+    public int requestId() {
+        return request.getId();
+    }
+}
@@ -0,0 +1,35 @@
+package dev.bwmp.modReq.event;
+
+import java.util.List;
+
+import dev.bwmp.modReq.model.ModRequest;
+
+/**
+ * A change to a mod request, published on the {@link RequestEventBus} after
+ * it has been persisted. Events carry snapshots of the request, so
+ * asynchronous listeners never see later changes.
+ */
+public sealed interface RequestEvent
+        permits RequestCreatedEvent, RequestClaimedEvent, RequestTransitionedEvent, NoteAddedEvent {
+
+    /**
+     * @return The ID of the affected request
+     */
+    int requestId();
+
+    /**
+     * Copies a request for an event
+     *
+     * @param request The request, or null
+     * @return A copy with an unmodifiable copy of the notes, or null
+     */
+    static ModRequest snapshot(ModRequest request) {
+        if (request == null) {
+            return null;
+        }
+
+        ModRequest snapshot = request.copy();
+        snapshot.setNotes(List.copyOf(snapshot.getNotes()));
+        return snapshot;
+    }
+}
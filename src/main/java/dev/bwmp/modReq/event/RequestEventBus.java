@@ -0,0 +1,124 @@
+package dev.bwmp.modReq.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+import dev.bwmp.modReq.ModReq;
+
+/**
+ * Fans out request lifecycle events to the rest of the plugin. Synchronous
+ * listeners run on the server thread; all of them for one event run in the
+ * same tick. Asynchronous listeners run on one virtual thread per subscriber
+ * name. Listeners registered under the same name share that thread and see
+ * all of their events in publication order. A slow subscriber never delays
+ * another.
+ */
+public class RequestEventBus {
+
+    private record Subscription<T extends RequestEvent>(Class<T> type, Consumer<? super T> listener,
+            ExecutorService executor) {
+
+        void deliver(RequestEvent event, ModReq plugin) {
+            try {
+                listener.accept(type.cast(event));
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.WARNING,
+                        "Listener for " + type.getSimpleName() + " failed on request #" + event.requestId(), e);
+            }
+        }
+    }
+
+    private final ModReq plugin;
+    private final List<Subscription<?>> subscriptions = new CopyOnWriteArrayList<>();
+    private final Map<String, ExecutorService> executors = new ConcurrentHashMap<>();
+
+    public RequestEventBus(ModReq plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Registers a listener that runs on the server thread
+     *
+     * @param type     The event type to listen for
+     * @param listener The listener
+     */
+    public <T extends RequestEvent> void subscribe(Class<T> type, Consumer<? super T> listener) {
+        subscriptions.add(new Subscription<>(type, listener, null));
+    }
+
+    /**
+     * Registers a listener that runs off the server thread, on the executor
+     * of its subscriber name
+     *
+     * @param name     Subscriber name; listeners with the same name are called
+     *                 one at a time, in publication order
+     * @param type     The event type to listen for
+     * @param listener The listener
+     */
+    public <T extends RequestEvent> void subscribeAsync(String name, Class<T> type, Consumer<? super T> listener) {
+        ExecutorService executor = executors.computeIfAbsent(name, key -> Executors.newSingleThreadExecutor(
+                Thread.ofVirtual().name("ModReq-Events-" + key).factory()));
+        subscriptions.add(new Subscription<>(type, listener, executor));
+    }
+
+    /**
+     * Delivers an event to every listener registered for its type
+     *
+     * @param event The event, published after the change was persisted
+     */
+    public void publish(RequestEvent event) {
+        List<Subscription<?>> mainThread = new ArrayList<>();
+
+        for (Subscription<?> subscription : subscriptions) {
+            if (!subscription.type().isInstance(event)) {
+                continue;
+            }
+
+            if (subscription.executor() == null) {
+                mainThread.add(subscription);
+            } else if (!subscription.executor().isShutdown()) {
+                subscription.executor().execute(() -> subscription.deliver(event, plugin));
+            }
+        }
+
+        if (mainThread.isEmpty() || !plugin.isEnabled()) {
+            return;
+        }
+
+        Runnable task = () -> mainThread.forEach(subscription -> subscription.deliver(event, plugin));
+        if (plugin.getServer().isPrimaryThread()) {
+            task.run();
+        } else {
+            plugin.getServer().getScheduler().runTask(plugin, task);
+        }
+    }
+
+    /**
+     * Stops the asynchronous listeners after they have handled the events
+     * already published
+     */
+    public void shutdown() {
+        executors.values().forEach(ExecutorService::shutdown);
+
+        for (ExecutorService executor : executors.values()) {
+            try {
+                if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                executor.shutdownNow();
+            }
+        }
+        subscriptions.clear();
+        executors.clear();
+    }
+}
@@ -0,0 +1,27 @@
+package dev.bwmp.modReq.event;
+
+import java.util.UUID;
+
+import dev.bwmp.modReq.model.ModRequest;
+import dev.bwmp.modReq.model.ModRequestStatus;
+
+/**
+ * A request was completed, closed or elevated
+ *
+ * @param request   The request after the change, with notes
+ * @param status    The new status
+ * @param actorId   The staff member who made the change
+ * @param actorName The staff member's name
+ */
+public record RequestTransitionedEvent(ModRequest request, ModRequestStatus status, UUID actorId, String actorName)
+        implements RequestEvent {
+
+    public RequestTransitionedEvent {
+        request = RequestEvent.snapshot(request);
+    }
+
+    @Override
+    public int requestId() {
+        return request.getId();
+    }
+}
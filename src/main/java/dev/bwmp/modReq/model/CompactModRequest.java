@@ -0,0 +1,272 @@
+package dev.bwmp.modReq.model;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable, memory-compact form of a {@link ModRequest} and its notes for
+ * long-lived caches. UUIDs are stored as pairs of longs, timestamps as epoch
+ * milliseconds (UTC, truncated to the millisecond), the status as its byte
+ * code and world names are shared through a small dictionary. A request
+ * without notes holds no note array at all.
+ */
+public final class CompactModRequest {
+
+    private static final int MAX_WORLD_NAMES = 256;
+    private static final Map<String, String> WORLD_NAMES = new ConcurrentHashMap<>();
+
+    private static final byte HAS_CLAIMED_BY = 1;
+    private static final byte HAS_CLOSED_BY = 1 << 1;
+    private static final byte HAS_COMPLETED_BY = 1 << 2;
+    private static final byte HAS_CREATED_AT = 1 << 3;
+    private static final byte HAS_UPDATED_AT = 1 << 4;
+    private static final byte HAS_CLOSED_AT = 1 << 5;
+    private static final byte HAS_PLAYER_ID = 1 << 6;
+
+    private static final byte NOTE_HAS_AUTHOR_ID = 1;
+    private static final byte NOTE_HAS_CREATED_AT = 1 << 1;
+
+    /**
+     * Compact form of a {@link ModRequestNote}. The request ID is implied by
+     * the owning request; present holds the NOTE_HAS_* flags.
+     */
+    private record Note(int id, byte present, long authorMost, long authorLeast, String authorName,
+            String content, long createdAt) {
+    }
+
+    private final int id;
+    private final byte status;
+    private final byte present;
+    private final long playerMost;
+    private final long playerLeast;
+    private final long claimedByMost;
+    private final long claimedByLeast;
+    private final long closedByMost;
+    private final long closedByLeast;
+    private final long completedByMost;
+    private final long completedByLeast;
+    private final long createdAt;
+    private final long updatedAt;
+    private final long closedAt;
+    private final String playerName;
+    private final String description;
+    private final String claimedByName;
+    private final String closedByName;
+    private final String completedByName;
+    private final String worldName;
+    private final double x;
+    private final double y;
+    private final double z;
+    private final float yaw;
+    private final float pitch;
+    private final Note[] notes;
+
+    private CompactModRequest(ModRequest request) {
+        this.id = request.getId();
+        this.status = (byte) request.getStatus().getCode();
+
+        byte flags = 0;
+        UUID playerId = request.getPlayerId();
+        if (playerId != null) {
+            flags |= HAS_PLAYER_ID;
+        }
+        this.playerMost = playerId != null ? playerId.getMostSignificantBits() : 0;
+        this.playerLeast = playerId != null ? playerId.getLeastSignificantBits() : 0;
+
+        UUID claimedBy = request.getClaimedBy();
+        if (claimedBy != null) {
+            flags |= HAS_CLAIMED_BY;
+        }
+        this.claimedByMost = claimedBy != null ? claimedBy.getMostSignificantBits() : 0;
+        this.claimedByLeast = claimedBy != null ? claimedBy.getLeastSignificantBits() : 0;
+
+        UUID closedBy = request.getClosedBy();
+        if (closedBy != null) {
+            flags |= HAS_CLOSED_BY;
+        }
+        this.closedByMost = closedBy != null ? closedBy.getMostSignificantBits() : 0;
+        this.closedByLeast = closedBy != null ? closedBy.getLeastSignificantBits() : 0;
+
+        UUID completedBy = request.getCompletedBy();
+        if (completedBy != null) {
+            flags |= HAS_COMPLETED_BY;
+        }
+        this.completedByMost = completedBy != null ? completedBy.getMostSignificantBits() : 0;
+        this.completedByLeast = completedBy != null ? completedBy.getLeastSignificantBits() : 0;
+
+        if (request.getCreatedAt() != null) {
+            flags |= HAS_CREATED_AT;
+        }
+        if (request.getUpdatedAt() != null) {
+            flags |= HAS_UPDATED_AT;
+        }
+        if (request.getClosedAt() != null) {
+            flags |= HAS_CLOSED_AT;
+        }
+        this.createdAt = toMillis(request.getCreatedAt());
+        this.updatedAt = toMillis(request.getUpdatedAt());
+        this.closedAt = toMillis(request.getClosedAt());
+        this.present = flags;
+
+        this.playerName = request.getPlayerName();
+        this.description = request.getDescription();
+        this.claimedByName = request.getClaimedByName();
+        this.closedByName = request.getClosedByName();
+        this.completedByName = request.getCompletedByName();
+        this.worldName = internWorldName(request.getWorldName());
+        this.x = request.getX();
+        this.y = request.getY();
+        this.z = request.getZ();
+        this.yaw = request.getYaw();
+        this.pitch = request.getPitch();
+
+        List<ModRequestNote> requestNotes = request.getNotes();
+        if (requestNotes == null || requestNotes.isEmpty()) {
+            this.notes = null;
+        } else {
+            this.notes = new Note[requestNotes.size()];
+            for (int i = 0; i < notes.length; i++) {
+                ModRequestNote note = requestNotes.get(i);
+                UUID authorId = note.getAuthorId();
+                byte noteFlags = 0;
+                if (authorId != null) {
+                    noteFlags |= NOTE_HAS_AUTHOR_ID;
+                }
+                if (note.getCreatedAt() != null) {
+                    noteFlags |= NOTE_HAS_CREATED_AT;
+                }
+                notes[i] = new Note(note.getId(), noteFlags,
+                        authorId != null ? authorId.getMostSignificantBits() : 0,
+                        authorId != null ? authorId.getLeastSignificantBits() : 0,
+                        note.getAuthorName(), note.getContent(), toMillis(note.getCreatedAt()));
+            }
+        }
+    }
+
+    /**
+     * Creates the compact form of a request and its notes
+     *
+     * @param request The request, which is not retained
+     * @return The compact copy
+     */
+    public static CompactModRequest of(ModRequest request) {
+        return new CompactModRequest(request);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public ModRequestStatus getStatus() {
+        return ModRequestStatus.fromCode(status);
+    }
+
+    public boolean isOpen() {
+        ModRequestStatus current = getStatus();
+        return current == ModRequestStatus.OPEN || current == ModRequestStatus.ELEVATED;
+    }
+
+    /**
+     * Rough number of characters of text held, for weighing cache entries
+     */
+    public int getTextLength() {
+        int length = length(playerName) + length(description) + length(claimedByName) + length(closedByName)
+                + length(completedByName);
+        if (notes != null) {
+            for (Note note : notes) {
+                length += length(note.authorName()) + length(note.content());
+            }
+        }
+        return length;
+    }
+
+    public int getNoteCount() {
+        return notes != null ? notes.length : 0;
+    }
+
+    /**
+     * Expands this into a new, independent request with its notes
+     *
+     * @return A new request
+     */
+    public ModRequest toModRequest() {
+        ModRequest request = new ModRequest();
+        request.setId(id);
+        request.setPlayerId((present & HAS_PLAYER_ID) != 0 ? new UUID(playerMost, playerLeast) : null);
+        request.setPlayerName(playerName);
+        request.setDescription(description);
+        request.setStatus(getStatus());
+
+        request.setClaimedBy((present & HAS_CLAIMED_BY) != 0 ? new UUID(claimedByMost, claimedByLeast) : null);
+        request.setClaimedByName(claimedByName);
+        request.setClosedBy((present & HAS_CLOSED_BY) != 0 ? new UUID(closedByMost, closedByLeast) : null);
+        request.setClosedByName(closedByName);
+        request.setCompletedBy((present & HAS_COMPLETED_BY) != 0 ? new UUID(completedByMost, completedByLeast)
+                : null);
+        request.setCompletedByName(completedByName);
+
+        request.setWorldName(worldName);
+        request.setX(x);
+        request.setY(y);
+        request.setZ(z);
+        request.setYaw(yaw);
+        request.setPitch(pitch);
+
+        request.setCreatedAt((present & HAS_CREATED_AT) != 0 ? fromMillis(createdAt) : null);
+        request.setUpdatedAt((present & HAS_UPDATED_AT) != 0 ? fromMillis(updatedAt) : null);
+        request.setClosedAt((present & HAS_CLOSED_AT) != 0 ? fromMillis(closedAt) : null);
+
+        List<ModRequestNote> requestNotes = new ArrayList<>(getNoteCount());
+        if (notes != null) {
+            for (Note note : notes) {
+                ModRequestNote expanded = new ModRequestNote();
+                expanded.setId(note.id());
+                expanded.setRequestId(id);
+                expanded.setAuthorId((note.present() & NOTE_HAS_AUTHOR_ID) != 0
+                        ? new UUID(note.authorMost(), note.authorLeast())
+                        : null);
+                expanded.setAuthorName(note.authorName());
+                expanded.setContent(note.content());
+                expanded.setCreatedAt((note.present() & NOTE_HAS_CREATED_AT) != 0 ? fromMillis(note.createdAt())
+                        : null);
+                requestNotes.add(expanded);
+            }
+        }
+        request.setNotes(requestNotes);
+
+        return request;
+    }
+
+    private static String internWorldName(String worldName) {
+        if (worldName == null) {
+            return null;
+        }
+        String shared = WORLD_NAMES.get(worldName);
+        if (shared != null) {
+            return shared;
+        }
+        if (WORLD_NAMES.size() >= MAX_WORLD_NAMES) {
+            return worldName;
+        }
+        shared = WORLD_NAMES.putIfAbsent(worldName, worldName);
+        return shared != null ? shared : worldName;
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toInstant(ZoneOffset.UTC).toEpochMilli() : 0;
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
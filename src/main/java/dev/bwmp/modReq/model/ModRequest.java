@@ -57,6 +57,37 @@ public class ModRequest {
         }
     }
 
+    /**
+     * Creates a copy of this request, including a copy of its note list
+     * 
+     * @return A new request with the same state
+     */
+    public ModRequest copy() {
+        ModRequest copy = new ModRequest();
+        copy.id = id;
+        copy.playerId = playerId;
+        copy.playerName = playerName;
+        copy.description = description;
+        copy.status = status;
+        copy.claimedBy = claimedBy;
+        copy.claimedByName = claimedByName;
+        copy.closedBy = closedBy;
+        copy.closedByName = closedByName;
+        copy.completedBy = completedBy;
+        copy.completedByName = completedByName;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        copy.closedAt = closedAt;
+        copy.worldName = worldName;
+        copy.x = x;
+        copy.y = y;
+        copy.z = z;
+        copy.yaw = yaw;
+        copy.pitch = pitch;
+        copy.notes = notes != null ? new ArrayList<>(notes) : new ArrayList<>();
+        return copy;
+    }
+
     public int getId() {
         return id;
     }
@@ -21,6 +21,37 @@ public enum ModRequestStatus {
    */
   CLOSED;
 
+  /**
+   * Gets the stable numeric code stored in the database for this status
+   * 
+   * @return Status code
+   */
+  public int getCode() {
+    return switch (this) {
+      case OPEN -> 0;
+      case ELEVATED -> 1;
+      case COMPLETED -> 2;
+      case CLOSED -> 3;
+    };
+  }
+
+  /**
+   * Gets the status for a database status code
+   * 
+   * @param code The stored status code
+   * @return The matching status
+   * @throws IllegalArgumentException if the code is unknown
+   */
+  public static ModRequestStatus fromCode(int code) {
+    return switch (code) {
+      case 0 -> OPEN;
+      case 1 -> ELEVATED;
+      case 2 -> COMPLETED;
+      case 3 -> CLOSED;
+      default -> throw new IllegalArgumentException("Unknown status code: " + code);
+    };
+  }
+
   /**
    * Gets a user-friendly display name for this status
    * 
@@ -0,0 +1,196 @@
+package dev.bwmp.modReq.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import dev.bwmp.modReq.model.ModRequest;
+import dev.bwmp.modReq.model.ModRequestNote;
+
+/**
+ * Authoritative in-memory set of all active (OPEN/ELEVATED) mod requests.
+ * Writes are serialized and kept in step with the database by
+ * {@link ModRequestService}; reads are lock-free. A stored request is never
+ * modified: every change replaces it with an updated copy, so readers on any
+ * thread see a consistent request.
+ */
+public class ActiveRequestCache {
+
+    private final Map<Integer, ModRequest> byId = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<Integer>> byPlayer = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<Integer>> byClaimer = new ConcurrentHashMap<>();
+    private final Runnable changeListener;
+
+    /**
+     * @param changeListener Invoked after every change to the set of active
+     *                       requests or their claimers
+     */
+    public ActiveRequestCache(Runnable changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    /**
+     * Replaces the cache contents with the given requests
+     *
+     * @param requests The active requests loaded from the database
+     */
+    public synchronized void load(Collection<ModRequest> requests) {
+        byId.clear();
+        byPlayer.clear();
+        byClaimer.clear();
+
+        for (ModRequest request : requests) {
+            if (request.isOpen()) {
+                byId.put(request.getId(), request);
+                index(request);
+            }
+        }
+        changeListener.run();
+    }
+
+    /**
+     * Stores the latest state of a request. Requests that are no longer
+     * active are evicted instead.
+     *
+     * @param request The request as persisted
+     */
+    public synchronized void put(ModRequest request) {
+        if (!request.isOpen()) {
+            remove(request.getId());
+            return;
+        }
+
+        ModRequest previous = byId.put(request.getId(), request);
+        if (previous != null) {
+            unindex(previous);
+        }
+        index(request);
+        changeListener.run();
+    }
+
+    /**
+     * Applies a mutation to a copy of a cached request and stores the result
+     *
+     * @param id       The request ID
+     * @param mutation The change that was already persisted
+     * @return The updated copy, or null if the request is not cached
+     */
+    public synchronized ModRequest update(int id, Consumer<ModRequest> mutation) {
+        ModRequest current = byId.get(id);
+        if (current == null) {
+            return null;
+        }
+
+        ModRequest updated = current.copy();
+        mutation.accept(updated);
+        put(updated);
+        return updated;
+    }
+
+    /**
+     * Evicts a request from the cache
+     *
+     * @param id The request ID
+     */
+    public synchronized void remove(int id) {
+        ModRequest previous = byId.remove(id);
+        if (previous != null) {
+            unindex(previous);
+            changeListener.run();
+        }
+    }
+
+    /**
+     * Appends a note to a copy of a cached request, if it is active, and
+     * stores the copy
+     *
+     * @param note The persisted note
+     * @return The updated copy, or null if the request is not cached
+     */
+    public synchronized ModRequest addNote(ModRequestNote note) {
+        ModRequest current = byId.get(note.getRequestId());
+        if (current == null) {
+            return null;
+        }
+
+        ModRequest updated = current.copy();
+        updated.getNotes().add(note);
+        byId.put(updated.getId(), updated);
+        return updated;
+    }
+
+    public ModRequest get(int id) {
+        return byId.get(id);
+    }
+
+    public List<ModRequest> getAll() {
+        return new ArrayList<>(byId.values());
+    }
+
+    public List<ModRequest> getByPlayer(UUID playerId) {
+        return lookup(byPlayer.get(playerId));
+    }
+
+    public List<ModRequest> getByClaimer(UUID claimerId) {
+        List<ModRequest> requests = lookup(byClaimer.get(claimerId));
+        requests.removeIf(request -> !claimerId.equals(request.getClaimedBy()));
+        return requests;
+    }
+
+    public int countByPlayer(UUID playerId) {
+        Set<Integer> ids = byPlayer.get(playerId);
+        return ids != null ? ids.size() : 0;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    private List<ModRequest> lookup(Set<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<ModRequest> requests = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            ModRequest request = byId.get(id);
+            if (request != null) {
+                requests.add(request);
+            }
+        }
+        return requests;
+    }
+
+    private void index(ModRequest request) {
+        if (request.getPlayerId() != null) {
+            byPlayer.computeIfAbsent(request.getPlayerId(), k -> ConcurrentHashMap.newKeySet()).add(request.getId());
+        }
+        if (request.getClaimedBy() != null) {
+            byClaimer.computeIfAbsent(request.getClaimedBy(), k -> ConcurrentHashMap.newKeySet()).add(request.getId());
+        }
+    }
+
+    private void unindex(ModRequest request) {
+        removeFromIndex(byPlayer, request.getPlayerId(), request.getId());
+        removeFromIndex(byClaimer, request.getClaimedBy(), request.getId());
+    }
+
+    private static void removeFromIndex(Map<UUID, Set<Integer>> index, UUID key, int id) {
+        if (key == null) {
+            return;
+        }
+
+        Set<Integer> ids = index.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+}
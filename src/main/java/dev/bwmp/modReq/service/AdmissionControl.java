@@ -0,0 +1,57 @@
+package dev.bwmp.modReq.service;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import dev.bwmp.modReq.ModReq;
+import dev.bwmp.modReq.config.ConfigManager;
+
+/**
+ * Rate limits for creating requests and adding notes. Commands check these
+ * before starting any database or Discord work.
+ */
+public class AdmissionControl {
+
+    private final ModReq plugin;
+    private volatile RateLimiter createLimiter;
+    private volatile RateLimiter noteLimiter;
+
+    public AdmissionControl(ModReq plugin) {
+        this.plugin = plugin;
+        reload();
+    }
+
+    /**
+     * Schedules the eviction of idle player buckets
+     */
+    public void start() {
+        long intervalTicks = idleSeconds() * 20L;
+        plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, () -> {
+            long idleNanos = TimeUnit.SECONDS.toNanos(idleSeconds());
+            createLimiter.evictIdle(idleNanos);
+            noteLimiter.evictIdle(idleNanos);
+        }, intervalTicks, intervalTicks);
+    }
+
+    /**
+     * Rebuilds the limiters from the current configuration. Buckets start
+     * out full again.
+     */
+    public void reload() {
+        ConfigManager config = plugin.getConfigManager();
+        this.createLimiter = RateLimiter.fromConfig(config, "create", 3, 6, 30, 120);
+        this.noteLimiter = RateLimiter.fromConfig(config, "note", 5, 30, 60, 300);
+    }
+
+    public boolean tryCreate(UUID playerId) {
+        return createLimiter.tryAcquire(playerId);
+    }
+
+    public boolean tryAddNote(UUID playerId) {
+        return noteLimiter.tryAcquire(playerId);
+    }
+
+    private int idleSeconds() {
+        return Math.max(10, plugin.getConfigManager().getInt("settings.rate_limits.idle_eviction_seconds", 300));
+    }
+}
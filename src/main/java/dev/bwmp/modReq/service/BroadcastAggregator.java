@@ -0,0 +1,76 @@
+package dev.bwmp.modReq.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bukkit.Sound;
+import org.bukkit.entity.Player;
+
+import dev.bwmp.modReq.ModReq;
+import dev.bwmp.modReq.util.TextUtil;
+import net.kyori.adventure.text.Component;
+
+/**
+ * Collects new-request notifications for a short tick window and sends staff
+ * a single message and sound for the whole window. A lone request still gets
+ * the usual message. Only used from the server thread.
+ */
+public class BroadcastAggregator {
+
+    private record Created(int requestId, String playerName) {
+    }
+
+    private final ModReq plugin;
+    private final StaffIndex staffIndex;
+    private final List<Created> pending = new ArrayList<>();
+    private boolean flushScheduled;
+
+    public BroadcastAggregator(ModReq plugin, StaffIndex staffIndex) {
+        this.plugin = plugin;
+        this.staffIndex = staffIndex;
+    }
+
+    /**
+     * Queues a new-request notification
+     *
+     * @param requestId  The new request's ID
+     * @param playerName The player who created it
+     */
+    public void requestCreated(int requestId, String playerName) {
+        pending.add(new Created(requestId, playerName));
+
+        long window = plugin.getConfigManager().getInt("settings.broadcast_window_ticks", 20);
+        if (window <= 0) {
+            flush();
+        } else if (!flushScheduled) {
+            flushScheduled = true;
+            plugin.getServer().getScheduler().runTaskLater(plugin, this::flush, window);
+        }
+    }
+
+    private void flush() {
+        flushScheduled = false;
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Component message;
+        if (pending.size() == 1) {
+            message = TextUtil.prefixed("&f" + pending.get(0).playerName() + " &7created a new request");
+        } else {
+            int first = Integer.MAX_VALUE;
+            int last = Integer.MIN_VALUE;
+            for (Created created : pending) {
+                first = Math.min(first, created.requestId());
+                last = Math.max(last, created.requestId());
+            }
+            message = TextUtil.prefixed("&f" + pending.size() + " &7new requests &f(#" + first + "–#" + last + ")");
+        }
+        pending.clear();
+
+        for (Player staff : staffIndex.getMods()) {
+            staff.sendMessage(message);
+            staff.playSound(staff.getLocation(), Sound.BLOCK_NOTE_BLOCK_PLING, 1, 1);
+        }
+    }
+}
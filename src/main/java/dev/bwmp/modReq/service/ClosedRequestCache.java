@@ -0,0 +1,133 @@
+package dev.bwmp.modReq.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import dev.bwmp.modReq.model.CompactModRequest;
+import dev.bwmp.modReq.model.ModRequest;
+
+/**
+ * Least recently used cache of completed and closed requests with their
+ * notes. It is bounded both by entry count and by weight, roughly the number
+ * of characters of text held. Entries are stored as
+ * {@link CompactModRequest}s and expanded into new requests on every hit.
+ */
+public class ClosedRequestCache {
+
+    private static final int ENTRY_OVERHEAD = 64;
+    private static final int NOTE_OVERHEAD = 32;
+
+    private record Entry(CompactModRequest request, int weight) {
+    }
+
+    private final Map<Integer, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private int maxEntries;
+    private long maxWeight;
+    private long weight;
+    private long invalidations;
+
+    public ClosedRequestCache(int maxEntries, long maxWeight) {
+        resize(maxEntries, maxWeight);
+    }
+
+    /**
+     * Gets a cached request
+     *
+     * @return A new copy of the request with its notes, or null if not cached
+     */
+    public ModRequest get(int id) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(id);
+        }
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.request().toModRequest();
+    }
+
+    /**
+     * Marks the start of a database load. Pass the result to
+     * {@link #put(ModRequest, long)} so a load that overlapped an
+     * invalidation does not cache stale data.
+     */
+    public synchronized long stamp() {
+        return invalidations;
+    }
+
+    /**
+     * Caches a request loaded with its notes. Active requests are ignored.
+     *
+     * @param request The request
+     * @param stamp   The value of {@link #stamp()} before the load started
+     */
+    public synchronized void put(ModRequest request, long stamp) {
+        if (request.isOpen() || stamp != invalidations || maxEntries <= 0) {
+            return;
+        }
+
+        CompactModRequest compact = CompactModRequest.of(request);
+        int entryWeight = ENTRY_OVERHEAD + compact.getTextLength() + NOTE_OVERHEAD * compact.getNoteCount();
+        if (entryWeight > maxWeight) {
+            return;
+        }
+
+        Entry previous = entries.put(request.getId(), new Entry(compact, entryWeight));
+        if (previous != null) {
+            weight -= previous.weight();
+        }
+        weight += entryWeight;
+        evict();
+    }
+
+    /**
+     * Drops a request after it or its notes changed
+     */
+    public synchronized void invalidate(int id) {
+        invalidations++;
+        Entry removed = entries.remove(id);
+        if (removed != null) {
+            weight -= removed.weight();
+        }
+    }
+
+    /**
+     * Changes the bounds, evicting entries if the cache is now too large
+     */
+    public synchronized void resize(int maxEntries, long maxWeight) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        evict();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while ((entries.size() > Math.max(0, maxEntries) || weight > maxWeight) && iterator.hasNext()) {
+            weight -= iterator.next().weight();
+            iterator.remove();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package dev.bwmp.modReq.service;
+
+import com.google.gson.stream.JsonWriter;
+import dev.bwmp.modReq.config.ConfigManager;
+import dev.bwmp.modReq.model.ModRequest;
+import dev.bwmp.modReq.model.ModRequestNote;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders Discord embeds for request events. The constant parts of each
+ * event's embed (color, title, staff label) are compiled from the config once
+ * per load or reload. An embed is written straight to JSON with a streaming
+ * writer, with every text clipped to Discord's limits.
+ */
+public class DiscordEmbedTemplates {
+
+  static final int MAX_TITLE_LENGTH = 256;
+  static final int MAX_DESCRIPTION_LENGTH = 4096;
+  static final int MAX_FIELD_VALUE_LENGTH = 1024;
+
+  private static final String ELLIPSIS = "…";
+
+  private record Template(int color, String titlePrefix, String staffLabel) {
+  }
+
+  private static final Template FALLBACK = new Template(0xFFFFFF, "ModReq Update - #", null);
+
+  private volatile Map<String, Template> templates = Map.of();
+
+  public DiscordEmbedTemplates(ConfigManager configManager) {
+    compile(configManager);
+  }
+
+  /**
+   * Rebuilds the templates from the current configuration
+   */
+  public void compile(ConfigManager configManager) {
+    Map<String, Template> compiled = new HashMap<>();
+    compiled.put("created", new Template(parseColor(configManager.getString("discord.opened_embed_color", "#00FF00")),
+        "New ModReq Created - #", null));
+    compiled.put("elevated", new Template(
+        parseColor(configManager.getString("discord.elevated_embed_color", "#0000FF")),
+        "ModReq Elevated - #", "Elevated by"));
+    compiled.put("completed", new Template(parseColor(configManager.getString("discord.done_embed_color", "#FFFF00")),
+        "ModReq Completed - #", "Completed by"));
+    compiled.put("closed", new Template(parseColor(configManager.getString("discord.closed_embed_color", "#303030")),
+        "ModReq Closed - #", "Closed by"));
+    this.templates = Map.copyOf(compiled);
+  }
+
+  /**
+   * Renders the embed for an event as a JSON object
+   *
+   * @param request     The request
+   * @param eventType   created, elevated, completed or closed
+   * @param staffMember The staff member who caused the event, or null
+   * @param notes       Notes to include, or null
+   * @return The embed JSON
+   */
+  public String render(ModRequest request, String eventType, String staffMember, List<ModRequestNote> notes) {
+    Template template = templates.getOrDefault(eventType, FALLBACK);
+    StringWriter buffer = new StringWriter(512);
+
+    try (JsonWriter json = new JsonWriter(buffer)) {
+      json.beginObject();
+      json.name("color").value(template.color());
+      json.name("title").value(clip(template.titlePrefix() + request.getId(), MAX_TITLE_LENGTH));
+      json.name("description").value(clip(request.getDescription(), MAX_DESCRIPTION_LENGTH));
+
+      json.name("fields").beginArray();
+      writeField(json, "Player", request.getPlayerName(), true);
+      writeField(json, "Status", request.getStatus().name(), true);
+
+      if (request.getWorldName() != null) {
+        writeField(json, "Location", request.getWorldName() + " (" + (int) request.getX() + ", "
+            + (int) request.getY() + ", " + (int) request.getZ() + ")", false);
+      }
+
+      if (staffMember != null && template.staffLabel() != null) {
+        writeField(json, template.staffLabel(), staffMember, true);
+      }
+
+      if (notes != null && !notes.isEmpty()) {
+        writeField(json, "Notes", formatNotes(notes), false);
+      }
+      json.endArray();
+
+      json.name("timestamp").value(Instant.now().toString());
+      json.name("footer").beginObject().name("text").value("ModReq #" + request.getId()).endObject();
+      json.endObject();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    return buffer.toString();
+  }
+
+  private static void writeField(JsonWriter json, String name, String value, boolean inline) throws IOException {
+    json.beginObject();
+    json.name("name").value(name);
+    json.name("value").value(value == null || value.isEmpty() ? "-" : clip(value, MAX_FIELD_VALUE_LENGTH));
+    json.name("inline").value(inline);
+    json.endObject();
+  }
+
+  /**
+   * Joins notes oldest first, stopping once the field is full
+   */
+  private static String formatNotes(List<ModRequestNote> notes) {
+    StringBuilder text = new StringBuilder(Math.min(MAX_FIELD_VALUE_LENGTH, notes.size() * 64));
+    for (ModRequestNote note : notes) {
+      if (text.length() > 0) {
+        text.append('\n');
+      }
+      text.append("**").append(note.getAuthorName()).append("**: ").append(note.getContent());
+      if (text.length() > MAX_FIELD_VALUE_LENGTH) {
+        break;
+      }
+    }
+    return clip(text.toString(), MAX_FIELD_VALUE_LENGTH);
+  }
+
+  /**
+   * Shortens text to at most the given number of characters, marking the
+   * cut with an ellipsis and never splitting a surrogate pair
+   */
+  static String clip(String text, int maxLength) {
+    if (text == null || text.length() <= maxLength) {
+      return text;
+    }
+
+    int end = maxLength - ELLIPSIS.length();
+    if (Character.isHighSurrogate(text.charAt(end - 1))) {
+      end--;
+    }
+    return text.substring(0, end) + ELLIPSIS;
+  }
+
+  private static int parseColor(String hex) {
+    try {
+      return Integer.parseInt(hex.startsWith("#") ? hex.substring(1) : hex, 16);
+    } catch (NumberFormatException e) {
+      return FALLBACK.color();
+    }
+  }
+}
@@ -0,0 +1,244 @@
+package dev.bwmp.modReq.service;
+
+import dev.bwmp.modReq.ModReq;
+import dev.bwmp.modReq.config.ConfigManager;
+import dev.bwmp.modReq.database.DatabaseManager;
+import dev.bwmp.modReq.model.OutboxEntry;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Drains the persistent Discord outbox. Notifications are stored in the
+ * database before delivery. A background thread sends due entries through
+ * the webhook dispatchers and deletes them once Discord accepts them. A failed
+ * entry is retried with exponential backoff. Entries left at shutdown are
+ * picked up again on the next start.
+ * <p>
+ * Entries are written in the transaction of the request change they report,
+ * so a change that commits always has its notification stored.
+ * <p>
+ * When message editing is enabled, each request gets one Discord message.
+ * Later events edit that message, and events within the debounce window
+ * are folded into a single edit.
+ */
+public class DiscordOutbox {
+
+  private static final int BATCH_SIZE = 50;
+  private static final long BASE_BACKOFF_SECONDS = 5;
+
+  private final ModReq plugin;
+  private final DatabaseManager databaseManager;
+  private final Function<String, WebhookDispatcher> dispatchers;
+  private volatile long pollIntervalMillis;
+  private volatile int maxAttempts;
+  private volatile long maxBackoffSeconds;
+  private volatile boolean editMessages;
+  private volatile long editDebounceMillis;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition wakeUp = lock.newCondition();
+  private boolean pending;
+  private volatile boolean running = true;
+  private final Thread drainer;
+
+  /**
+   * @param plugin      The plugin
+   * @param dispatchers Resolves a webhook name to its dispatcher, or null if
+   *                    the webhook is not currently configured
+   */
+  public DiscordOutbox(ModReq plugin, Function<String, WebhookDispatcher> dispatchers) {
+    this.plugin = plugin;
+    this.databaseManager = plugin.getDatabaseManager();
+    this.dispatchers = dispatchers;
+    reload();
+    this.drainer = Thread.ofVirtual().name("ModReq-Outbox").start(this::run);
+  }
+
+  /**
+   * Reads the outbox and message editing settings from the configuration.
+   * Entries already stored are delivered with the new settings.
+   */
+  public void reload() {
+    ConfigManager config = plugin.getConfigManager();
+    this.pollIntervalMillis = Math.max(100, config.getInt("discord.outbox.poll_interval_ms", 2000));
+    this.maxAttempts = config.getInt("discord.outbox.max_attempts", 20);
+    this.maxBackoffSeconds = Math.max(BASE_BACKOFF_SECONDS,
+        config.getInt("discord.outbox.max_backoff_seconds", 3600));
+    this.editMessages = config.getBoolean("discord.edit_messages", true);
+    this.editDebounceMillis = Math.max(0, config.getInt("discord.edit_debounce_ms", 2000));
+  }
+
+  /**
+   * Stores a notification for delivery. Call {@link #wake()} once the
+   * transaction has committed.
+   *
+   * @param conn  The connection of the request change, inside its transaction
+   * @param entry The outbox entry
+   */
+  public void store(Connection conn, OutboxEntry entry) throws SQLException {
+    if (!editMessages) {
+      databaseManager.storeOutboxEntry(conn, entry, false);
+      return;
+    }
+
+    // Hold the edit back briefly so that events following in quick
+    // succession are folded into it
+    entry.setNextAttemptAt(entry.getCreatedAt().plus(Duration.ofMillis(editDebounceMillis)));
+    databaseManager.storeOutboxEntry(conn, entry, true);
+  }
+
+  /**
+   * Stops the drainer. Undelivered entries stay in the outbox.
+   */
+  public void shutdown(long timeoutMillis) {
+    running = false;
+    wake();
+    try {
+      drainer.join(timeoutMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Starts a drain now instead of at the next poll
+   */
+  public void wake() {
+    lock.lock();
+    try {
+      pending = true;
+      wakeUp.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void run() {
+    while (running) {
+      int delivered = 0;
+      try {
+        delivered = drain();
+      } catch (Exception e) {
+        plugin.getLogger().warning("Failed to drain Discord outbox: " + e.getMessage());
+      }
+
+      if (delivered < BATCH_SIZE) {
+        awaitWork();
+      }
+    }
+  }
+
+  private void awaitWork() {
+    lock.lock();
+    try {
+      if (!pending && running) {
+        wakeUp.await(pollIntervalMillis, TimeUnit.MILLISECONDS);
+      }
+      pending = false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      running = false;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Sends one batch of due entries and waits for the outcome. Entries for the
+   * same request and webhook are sent in order.
+   *
+   * @return Number of entries processed
+   */
+  private int drain() {
+    List<OutboxEntry> entries = databaseManager.getDueOutboxEntries(BATCH_SIZE).join();
+    Map<String, CompletableFuture<Void>> chains = new LinkedHashMap<>();
+    int processed = 0;
+
+    for (OutboxEntry entry : entries) {
+      WebhookDispatcher dispatcher = dispatchers.apply(entry.getWebhook());
+      if (dispatcher == null) {
+        // Webhook not configured right now; keep the entry for later
+        continue;
+      }
+
+      String key = entry.getRequestId() + ":" + entry.getWebhook();
+      CompletableFuture<Void> previous = chains.getOrDefault(key, CompletableFuture.completedFuture(null));
+      chains.put(key, previous.thenCompose(ignored -> process(entry, dispatcher)));
+      processed++;
+    }
+
+    CompletableFuture.allOf(chains.values().toArray(new CompletableFuture[0])).join();
+    return processed;
+  }
+
+  private CompletableFuture<Void> process(OutboxEntry entry, WebhookDispatcher dispatcher) {
+    return send(entry, dispatcher)
+        .handle((ignored, error) -> error)
+        .thenCompose(error -> {
+          if (error == null) {
+            return databaseManager.deleteOutboxEntry(entry);
+          }
+          if (isCancellation(error)) {
+            // The dispatcher stopped before sending; not a failed attempt
+            return CompletableFuture.<Void>completedFuture(null);
+          }
+          return reschedule(entry);
+        });
+  }
+
+  private static boolean isCancellation(Throwable error) {
+    while (error instanceof CompletionException && error.getCause() != null) {
+      error = error.getCause();
+    }
+    return error instanceof CancellationException;
+  }
+
+  private CompletableFuture<Void> send(OutboxEntry entry, WebhookDispatcher dispatcher) {
+    String embed = entry.getPayload();
+    if (!editMessages) {
+      return dispatcher.enqueue(embed);
+    }
+
+    return databaseManager.getDiscordMessageId(entry.getRequestId(), entry.getWebhook()).thenCompose(messageId -> {
+      if (messageId == null) {
+        return postMessage(entry, dispatcher, embed);
+      }
+      return dispatcher.edit(messageId, embed).thenCompose(edited -> edited != null
+          ? CompletableFuture.completedFuture(null)
+          : postMessage(entry, dispatcher, embed));
+    });
+  }
+
+  private CompletableFuture<Void> postMessage(OutboxEntry entry, WebhookDispatcher dispatcher, String embed) {
+    return dispatcher.post(embed).thenCompose(messageId -> messageId != null
+        ? databaseManager.saveDiscordMessageId(entry.getRequestId(), entry.getWebhook(), messageId)
+        : CompletableFuture.completedFuture(null));
+  }
+
+  private CompletableFuture<Void> reschedule(OutboxEntry entry) {
+    int attempts = entry.getAttempts() + 1;
+    if (maxAttempts > 0 && attempts >= maxAttempts) {
+      plugin.getLogger().warning("Dropping Discord notification for request #" + entry.getRequestId() + " ("
+          + entry.getEventType() + ") after " + attempts + " failed attempts");
+      return databaseManager.deleteOutboxEntry(entry);
+    }
+
+    long backoff = Math.min(maxBackoffSeconds, BASE_BACKOFF_SECONDS << Math.min(attempts - 1, 20));
+    entry.setAttempts(attempts);
+    entry.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoff));
+    return databaseManager.rescheduleOutboxEntry(entry);
+  }
+}
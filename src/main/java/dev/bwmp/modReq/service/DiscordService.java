@@ -1,194 +1,157 @@
 package dev.bwmp.modReq.service;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
 import dev.bwmp.modReq.ModReq;
 import dev.bwmp.modReq.config.ConfigManager;
+import dev.bwmp.modReq.database.DatabaseManager;
+import dev.bwmp.modReq.event.RequestCreatedEvent;
+import dev.bwmp.modReq.event.RequestEventBus;
+import dev.bwmp.modReq.event.RequestTransitionedEvent;
 import dev.bwmp.modReq.model.ModRequest;
-import dev.bwmp.modReq.model.ModRequestNote;
+import dev.bwmp.modReq.model.OutboxEntry;
+import dev.bwmp.modReq.util.BoundedVirtualExecutor;
 
-import java.io.IOException;
-import java.net.URI;
 import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.time.Instant;
-import java.util.List;
-import java.util.concurrent.CompletableFuture;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 
 public class DiscordService {
 
   private final ModReq plugin;
   private final ConfigManager configManager;
   private final HttpClient httpClient;
+  private final BoundedVirtualExecutor executor;
+  private final Map<String, WebhookDispatcher> dispatchers = new HashMap<>();
+  private final DiscordOutbox outbox;
+  private final DiscordEmbedTemplates templates;
+  private final WebhookRouter router;
+  private boolean stopped;
 
   public DiscordService(ModReq plugin) {
     this.plugin = plugin;
     this.configManager = plugin.getConfigManager();
-    this.httpClient = HttpClient.newHttpClient();
+    this.executor = new BoundedVirtualExecutor("ModReq-Discord", 4);
+    this.httpClient = HttpClient.newBuilder()
+        .executor(executor)
+        .connectTimeout(Duration.ofMillis(configManager.getInt("discord.connect_timeout_ms", 5000)))
+        .build();
+    this.templates = new DiscordEmbedTemplates(configManager);
+    this.router = new WebhookRouter(configManager, plugin.getLogger());
+    this.outbox = new DiscordOutbox(plugin, this::resolveDispatcher);
   }
 
-  public CompletableFuture<Void> sendRequestNotification(ModRequest request, String eventType, String staffMember,
-      List<ModRequestNote> notes) {
-    if (!isDiscordEnabled()) {
-      return CompletableFuture.completedFuture(null);
+  /**
+   * Applies a configuration reload to the embed templates, webhook routing
+   * and outbox settings. Dispatchers of removed or changed webhooks are
+   * stopped; changed ones are recreated on their next delivery.
+   */
+  public void reload() {
+    templates.compile(configManager);
+    router.compile(configManager);
+    outbox.reload();
+
+    synchronized (this) {
+      dispatchers.values().removeIf(dispatcher -> {
+        if (dispatcher.getEndpoint().equals(router.getEndpoint(dispatcher.getEndpoint().name()))) {
+          return false;
+        }
+        Thread.ofVirtual().start(() -> dispatcher.shutdown(5000));
+        return true;
+      });
     }
-
-    return CompletableFuture.runAsync(() -> {
-      try {
-        JsonObject payload = createWebhookPayload(request, eventType, staffMember, notes);
-        sendWebhook(payload);
-      } catch (Exception e) {
-        plugin.getLogger().warning("Failed to send Discord notification: " + e.getMessage());
-      }
-    });
-  }
-
-  public CompletableFuture<Void> sendRequestCreated(ModRequest request) {
-    return sendRequestNotification(request, "created", null, null);
-  }
-
-  public CompletableFuture<Void> sendRequestCompleted(ModRequest request, String staffMember,
-      List<ModRequestNote> notes) {
-    return sendRequestNotification(request, "completed", staffMember, notes);
   }
 
-  public CompletableFuture<Void> sendRequestElevated(ModRequest request, String staffMember,
-      List<ModRequestNote> notes) {
-    return sendRequestNotification(request, "elevated", staffMember, notes);
-  }
-
-  public CompletableFuture<Void> sendRequestClosed(ModRequest request, String staffMember,
-      List<ModRequestNote> notes) {
-    return sendRequestNotification(request, "closed", staffMember, notes);
+  public void shutdown() {
+    // Stop the dispatchers first so that the outbox is not left waiting on
+    // their retries; undelivered entries stay in the outbox
+    synchronized (this) {
+      stopped = true;
+      dispatchers.values().forEach(dispatcher -> dispatcher.shutdown(5000));
+      dispatchers.clear();
+    }
+    outbox.shutdown(5000);
+    executor.shutdown(5000);
   }
 
-  private boolean isDiscordEnabled() {
-    return configManager.getBoolean("discord.enabled", false) &&
-        !configManager.getString("discord.webhook_url", "").isEmpty();
+  /**
+   * Wakes the outbox when a request change has committed, so that its
+   * notifications, stored by {@link #notifications}, go out without waiting
+   * for the next poll
+   */
+  public void register(RequestEventBus eventBus) {
+    eventBus.subscribeAsync("discord", RequestCreatedEvent.class, event -> outbox.wake());
+    eventBus.subscribeAsync("discord", RequestTransitionedEvent.class, event -> outbox.wake());
   }
 
-  private JsonObject createWebhookPayload(ModRequest request, String eventType, String staffMember,
-      List<ModRequestNote> notes) {
-    JsonObject payload = new JsonObject();
-    JsonArray embeds = new JsonArray();
-    JsonObject embed = new JsonObject();
-
-    String color = getEmbedColor(eventType);
-    embed.addProperty("color", Integer.parseInt(color.substring(1), 16));
-
-    String title = getEmbedTitle(eventType, request.getId());
-    embed.addProperty("title", title);
-
-    embed.addProperty("description", request.getDescription());
-
-    JsonArray fields = new JsonArray();
-
-    JsonObject playerField = new JsonObject();
-    playerField.addProperty("name", "Player");
-    playerField.addProperty("value", request.getPlayerName());
-    playerField.addProperty("inline", true);
-    fields.add(playerField);
-
-    JsonObject statusField = new JsonObject();
-    statusField.addProperty("name", "Status");
-    statusField.addProperty("value", request.getStatus().name());
-    statusField.addProperty("inline", true);
-    fields.add(statusField);
-
-    if (request.getWorldName() != null) {
-      JsonObject locationField = new JsonObject();
-      locationField.addProperty("name", "Location");
-      locationField.addProperty("value", String.format("%s (%d, %d, %d)",
-          request.getWorldName(), (int) request.getX(), (int) request.getY(), (int) request.getZ()));
-      locationField.addProperty("inline", false);
-      fields.add(locationField);
-    }
-
-    if (staffMember != null) {
-      JsonObject staffField = new JsonObject();
-      staffField.addProperty("name", eventType.equals("completed") ? "Completed by" : "Elevated by");
-      staffField.addProperty("value", staffMember);
-      staffField.addProperty("inline", true);
-      fields.add(staffField);
+  /**
+   * Gets the work that renders and stores the notifications of a request
+   * change in the transaction of the change
+   *
+   * @param eventType   created, elevated, completed or closed
+   * @param staffMember Who made the change, or null
+   * @return The hook, or null if Discord notifications are disabled
+   */
+  public DatabaseManager.ChangeHook notifications(String eventType, String staffMember) {
+    if (!isDiscordEnabled()) {
+      return null;
     }
 
-    if (notes != null && !notes.isEmpty()) {
-      StringBuilder notesText = new StringBuilder();
-      for (ModRequestNote note : notes) {
-        if (notesText.length() > 0)
-          notesText.append("\n");
-        notesText.append("**").append(note.getAuthorName()).append("**: ").append(note.getContent());
+    return (conn, request) -> {
+      Set<String> webhooks = router.route(eventType, request);
+      if (webhooks.isEmpty()) {
+        return;
       }
 
-      JsonObject notesField = new JsonObject();
-      notesField.addProperty("name", "Notes");
-      notesField.addProperty("value", notesText.toString());
-      notesField.addProperty("inline", false);
-      fields.add(notesField);
-    }
-
-    embed.add("fields", fields);
-
-    embed.addProperty("timestamp", Instant.now().toString());
-
-    JsonObject footer = new JsonObject();
-    footer.addProperty("text", "ModReq #" + request.getId());
-    embed.add("footer", footer);
-
-    embeds.add(embed);
-    payload.add("embeds", embeds);
-
-    return payload;
+      String embed = templates.render(request, eventType, staffMember, request.getNotes());
+      String key = idempotencyKey(request, eventType);
+      for (String webhook : webhooks) {
+        outbox.store(conn, new OutboxEntry(key + ":" + webhook, request.getId(), eventType, webhook, embed));
+      }
+    };
   }
 
-  private String getEmbedColor(String eventType) {
-    switch (eventType) {
-      case "created":
-        return configManager.getString("discord.opened_embed_color", "#00FF00");
-      case "elevated":
-        return configManager.getString("discord.elevated_embed_color", "#0000FF");
-      case "completed":
-        return configManager.getString("discord.closed_embed_color", "#FF0000");
-      case "closed":
-        return configManager.getString("discord.closed_embed_color", "#303030");
-      default:
-        return "#FFFFFF";
-    }
+  private boolean isDiscordEnabled() {
+    return configManager.getBoolean("discord.enabled", false) && !router.getEndpoints().isEmpty();
   }
 
-  private String getEmbedTitle(String eventType, int requestId) {
-    switch (eventType) {
-      case "created":
-        return "New ModReq Created - #" + requestId;
-      case "elevated":
-        return "ModReq Elevated - #" + requestId;
-      case "completed":
-        return "ModReq Completed - #" + requestId;
-      case "closed":
-        return "ModReq Closed - #" + requestId;
-      default:
-        return "ModReq Update - #" + requestId;
-    }
+  /**
+   * Identifies one notification, so that raising the same event twice stores
+   * it only once
+   */
+  private static String idempotencyKey(ModRequest request, String eventType) {
+    LocalDateTime at = request.getUpdatedAt() != null ? request.getUpdatedAt() : request.getCreatedAt();
+    long millis = at != null ? at.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0;
+    return request.getId() + ":" + eventType + ":" + millis;
   }
 
-  private void sendWebhook(JsonObject payload) throws IOException, InterruptedException {
-    String webhookUrl = configManager.getString("discord.webhook_url", "");
-    if (webhookUrl.isEmpty()) {
-      return;
+  /**
+   * Gets the dispatcher of a configured webhook, creating it on first use
+   *
+   * @return The dispatcher, or null if the webhook is not configured
+   */
+  private synchronized WebhookDispatcher resolveDispatcher(String webhook) {
+    if (stopped || !configManager.getBoolean("discord.enabled", false)) {
+      return null;
     }
 
-    HttpRequest request = HttpRequest.newBuilder()
-        .uri(URI.create(webhookUrl))
-        .header("Content-Type", "application/json")
-        .POST(HttpRequest.BodyPublishers.ofString(payload.toString()))
-        .build();
-
-    HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    WebhookRouter.Endpoint endpoint = router.getEndpoint(webhook);
+    if (endpoint == null) {
+      return null;
+    }
 
-    if (response.statusCode() < 200 || response.statusCode() >= 300) {
-      plugin.getLogger().warning("Discord webhook failed with status: " + response.statusCode() +
-          " - " + response.body());
+    WebhookDispatcher dispatcher = dispatchers.get(webhook);
+    if (dispatcher == null || !dispatcher.getEndpoint().equals(endpoint)) {
+      if (dispatcher != null) {
+        WebhookDispatcher previous = dispatcher;
+        Thread.ofVirtual().start(() -> previous.shutdown(5000));
+      }
+      dispatcher = new WebhookDispatcher(plugin.getLogger(), httpClient, endpoint,
+          Duration.ofMillis(configManager.getInt("discord.request_timeout_ms", 10000)));
+      dispatchers.put(webhook, dispatcher);
     }
+    return dispatcher;
   }
 }
@@ -1,27 +1,94 @@
 package dev.bwmp.modReq.service;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
 
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 
 import dev.bwmp.modReq.ModReq;
 import dev.bwmp.modReq.database.DatabaseManager;
+import dev.bwmp.modReq.database.RequestQuery;
+import dev.bwmp.modReq.event.NoteAddedEvent;
+import dev.bwmp.modReq.event.RequestClaimedEvent;
+import dev.bwmp.modReq.event.RequestCreatedEvent;
+import dev.bwmp.modReq.event.RequestEventBus;
+import dev.bwmp.modReq.event.RequestTransitionedEvent;
 import dev.bwmp.modReq.model.ModRequest;
 import dev.bwmp.modReq.model.ModRequestNote;
 import dev.bwmp.modReq.model.ModRequestStatus;
 
 public class ModRequestService {
 
+    private static final int MAX_MISSING_IDS = 10_000;
+
     private final ModReq plugin;
     private final DatabaseManager databaseManager;
+    private final ActiveRequestCache activeRequests;
+    private final RequestCompletionIndex completionIndex;
+    private final OpenRequestCounters openCounters = new OpenRequestCounters();
+    private final ClosedRequestCache closedRequests;
+    private final Map<Integer, CompletableFuture<ModRequest>> requestLookups = new ConcurrentHashMap<>();
+    private final Map<Integer, CompletableFuture<ModRequest>> requestWithNotesLookups = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> missingUntil = new ConcurrentHashMap<>();
+    private final Map<Integer, CompletableFuture<?>> pendingChanges = new ConcurrentHashMap<>();
+    private final AtomicLong creations = new AtomicLong();
+    private final RequestEventBus eventBus;
 
     public ModRequestService(ModReq plugin) {
         this.plugin = plugin;
         this.databaseManager = plugin.getDatabaseManager();
+        this.eventBus = plugin.getEventBus();
+        this.completionIndex = new RequestCompletionIndex(this::getActiveSnapshot);
+        this.activeRequests = new ActiveRequestCache(completionIndex::scheduleRefresh);
+        this.closedRequests = new ClosedRequestCache(getClosedCacheMaxEntries(), getClosedCacheMaxWeight());
+    }
+
+    /**
+     * Loads all active requests into memory. Must be called once before the
+     * service is used.
+     */
+    public void initialize() {
+        activeRequests.load(databaseManager.getActiveRequests().join());
+        openCounters.load(activeRequests.getAll());
+        completionIndex.rebuild();
+        plugin.getLogger().info("Loaded " + activeRequests.size() + " active mod requests");
+    }
+
+    /**
+     * Applies configuration changes to the caches
+     */
+    public void reload() {
+        closedRequests.resize(getClosedCacheMaxEntries(), getClosedCacheMaxWeight());
+    }
+
+    /**
+     * Gets the cache of recently viewed completed and closed requests
+     */
+    public ClosedRequestCache getClosedRequestCache() {
+        return closedRequests;
+    }
+
+    public int getActiveRequestCount() {
+        return activeRequests.size();
+    }
+
+    /**
+     * Gets the tab completion index for active request IDs
+     */
+    public RequestCompletionIndex getCompletionIndex() {
+        return completionIndex;
     }
 
     public CompletableFuture<ModRequest> createRequest(Player player, String description) {
@@ -30,29 +97,24 @@ public class ModRequestService {
 
     public CompletableFuture<ModRequest> createRequest(UUID playerId, String playerName, String description,
             Location location) {
-        return CompletableFuture.supplyAsync(() -> {
-            int maxRequests = plugin.getConfigManager().getInt("settings.max_requests_per_player", 5);
-            if (maxRequests > 0) {
-                try {
-                    int currentCount = databaseManager.countOpenRequestsByPlayer(playerId).get();
-                    if (currentCount >= maxRequests) {
-                        throw new IllegalStateException(
-                                "Player has reached maximum number of open requests: " + maxRequests);
-                    }
-                } catch (Exception e) {
-                    plugin.getLogger().severe("Failed to check player request count: " + e.getMessage());
-                    throw new RuntimeException("Failed to check player request count", e);
-                }
-            }
+        int maxRequests = plugin.getConfigManager().getInt("settings.max_requests_per_player", 5);
+        if (!openCounters.tryReserve(playerId, maxRequests)) {
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                    "Player has reached maximum number of open requests: " + maxRequests));
+        }
 
-            ModRequest request = new ModRequest(playerId, playerName, description, location);
+        ModRequest request = new ModRequest(playerId, playerName, description, location);
 
-            try {
-                return databaseManager.createRequest(request).get();
-            } catch (Exception e) {
-                plugin.getLogger().severe("Failed to create mod request: " + e.getMessage());
-                throw new RuntimeException("Failed to create mod request", e);
+        return databaseManager.createRequest(request, notifications("created", null)).whenComplete((created, throwable) -> {
+            if (throwable != null) {
+                openCounters.release(playerId);
             }
+        }).thenApply(created -> {
+            creations.incrementAndGet();
+            missingUntil.remove(created.getId());
+            activeRequests.put(created);
+            eventBus.publish(new RequestCreatedEvent(created));
+            return created;
         });
     }
 
@@ -61,18 +123,7 @@ public class ModRequestService {
     }
 
     public CompletableFuture<Boolean> claimRequest(int requestId, UUID staffId, String staffName) {
-        return databaseManager.getRequest(requestId).thenCompose(request -> {
-            if (request == null) {
-                return CompletableFuture.completedFuture(false);
-            }
-
-            if (request.isClaimed()) {
-                return CompletableFuture.completedFuture(false);
-            }
-
-            request.claim(staffId, staffName);
-            return databaseManager.updateRequest(request).thenApply(v -> true);
-        });
+        return claim(requestId, staffId, staffName, false);
     }
 
     public CompletableFuture<Boolean> forceClaimRequest(int requestId, Player staff) {
@@ -80,80 +131,47 @@ public class ModRequestService {
     }
 
     public CompletableFuture<Boolean> forceClaimRequest(int requestId, UUID staffId, String staffName) {
-        return databaseManager.getRequest(requestId).thenCompose(request -> {
-            if (request == null) {
-                return CompletableFuture.completedFuture(false);
-            }
-
-            request.claim(staffId, staffName);
-            return databaseManager.updateRequest(request).thenApply(v -> true);
-        });
+        return claim(requestId, staffId, staffName, true);
     }
 
     public CompletableFuture<Boolean> unclaimRequest(int requestId) {
-        return databaseManager.getRequest(requestId).thenCompose(request -> {
-            if (request == null || !request.isClaimed()) {
-                return CompletableFuture.completedFuture(false);
-            }
-
-            request.unclaim();
-            return databaseManager.updateRequest(request).thenApply(v -> true);
+        return serialized(requestId, () -> {
+            LocalDateTime now = LocalDateTime.now();
+            return databaseManager.unclaimRequest(requestId, now).thenApply(success -> {
+                if (success) {
+                    closedRequests.invalidate(requestId);
+                    activeRequests.update(requestId, request -> {
+                        request.unclaim();
+                        request.setUpdatedAt(now);
+                    });
+                }
+                return success;
+            });
         });
     }
 
     public CompletableFuture<Boolean> completeRequest(int requestId, Player player) {
-        return databaseManager.getRequest(requestId).thenCompose(request -> {
-            if (request == null || !request.isOpen()) {
-                return CompletableFuture.completedFuture(false);
-            }
-
-            request.complete(player.getUniqueId(), player.getName());
-            return databaseManager.updateRequest(request).thenApply(v -> true);
-        });
+        return completeRequestAndReturn(requestId, player).thenApply(request -> request != null);
     }
 
     public CompletableFuture<ModRequest> completeRequestAndReturn(int requestId, Player player) {
-        return databaseManager.getRequest(requestId).thenCompose(request -> {
-            if (request == null || !request.isOpen()) {
-                return CompletableFuture.completedFuture(null);
-            }
-
-            request.complete(player.getUniqueId(), player.getName());
-            return databaseManager.updateRequest(request).thenApply(v -> request);
-        });
+        return transition(requestId, ModRequestStatus.COMPLETED, player.getUniqueId(), player.getName());
     }
 
     public CompletableFuture<ModRequest> closeRequest(int requestId, Player player) {
-        return databaseManager.getRequest(requestId).thenCompose(request -> {
-            if (request == null || !request.isOpen()) {
-                return CompletableFuture.completedFuture(null);
-            }
-
-            request.close(player.getUniqueId(), player.getName());
-            return databaseManager.updateRequest(request).thenApply(v -> request);
-        });
+        return transition(requestId, ModRequestStatus.CLOSED, player.getUniqueId(), player.getName());
     }
 
     public CompletableFuture<Boolean> elevateRequest(int requestId) {
-        return databaseManager.getRequest(requestId).thenCompose(request -> {
-            if (request == null || !request.isOpen()) {
-                return CompletableFuture.completedFuture(false);
-            }
-
-            request.elevate();
-            return databaseManager.updateRequest(request).thenApply(v -> true);
-        });
+        return elevateRequestAndReturn(requestId).thenApply(request -> request != null);
     }
 
     public CompletableFuture<ModRequest> elevateRequestAndReturn(int requestId) {
-        return databaseManager.getRequest(requestId).thenCompose(request -> {
-            if (request == null || !request.isOpen()) {
-                return CompletableFuture.completedFuture(null);
-            }
+        return transition(requestId, ModRequestStatus.ELEVATED, null, null);
+    }
 
-            request.elevate();
-            return databaseManager.updateRequest(request).thenApply(v -> request);
-        });
+    public CompletableFuture<ModRequest> elevateRequestAndReturn(int requestId, Player player) {
+        return transition(requestId, ModRequestStatus.ELEVATED, player.getUniqueId(), player.getName());
     }
 
     public CompletableFuture<ModRequestNote> addNote(int requestId, Player author, String content) {
@@ -162,21 +180,76 @@ public class ModRequestService {
 
     public CompletableFuture<ModRequestNote> addNote(int requestId, UUID authorId, String authorName, String content) {
         ModRequestNote note = new ModRequestNote(requestId, authorId, authorName, content);
-        return databaseManager.addNote(note);
+        return databaseManager.addNote(note).thenApply(added -> {
+            closedRequests.invalidate(requestId);
+            ModRequest updated = activeRequests.addNote(added);
+            eventBus.publish(new NoteAddedEvent(added, updated));
+            return added;
+        });
     }
 
+    /**
+     * Gets a mod request by ID. Notes are present if the request was served
+     * from the active or closed request cache, but not if it had to be read
+     * from the database; use {@link #getRequestWithNotes} when they are
+     * needed. The caller gets its own copy.
+     */
     public CompletableFuture<ModRequest> getRequest(int id) {
-        return databaseManager.getRequest(id);
+        ModRequest cached = activeRequests.get(id);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached.copy());
+        }
+        cached = closedRequests.get(id);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return loadShared(requestLookups, id, databaseManager::getRequest);
     }
 
     /**
-     * Gets a mod request by ID with notes loaded
-     * TODO: Implement getNotesForRequest in DatabaseManager
+     * Gets a mod request by ID with notes loaded. The caller gets its own
+     * copy.
      */
     public CompletableFuture<ModRequest> getRequestWithNotes(int id) {
-        // For now, just return the request without notes
-        // This can be enhanced later when we add note retrieval to DatabaseManager
-        return getRequest(id);
+        ModRequest cached = activeRequests.get(id);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached.copy());
+        }
+        cached = closedRequests.get(id);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return loadShared(requestWithNotesLookups, id, this::loadRequestWithNotes);
+    }
+
+    /**
+     * Reads a request with its notes from the database and caches it if it
+     * is no longer active
+     */
+    private CompletableFuture<ModRequest> loadRequestWithNotes(int id) {
+        long stamp = closedRequests.stamp();
+        return databaseManager.getRequestWithNotes(id).thenApply(request -> {
+            if (request != null) {
+                closedRequests.put(request, stamp);
+            }
+            return request;
+        });
+    }
+
+    /**
+     * Fills in the notes of a page of requests with a single lookup
+     *
+     * @param requests The requests, typically from {@link #queryRequests}
+     * @return The same list, with notes set on every request
+     */
+    public CompletableFuture<List<ModRequest>> loadNotes(List<ModRequest> requests) {
+        int[] ids = requests.stream().mapToInt(ModRequest::getId).toArray();
+        return databaseManager.loadNotes(ids).thenApply(notes -> {
+            for (ModRequest request : requests) {
+                request.setNotes(notes.getOrDefault(request.getId(), new ArrayList<>()));
+            }
+            return requests;
+        });
     }
 
     public CompletableFuture<List<ModRequest>> getPlayerRequests(UUID playerId) {
@@ -184,94 +257,283 @@ public class ModRequestService {
     }
 
     public CompletableFuture<List<ModRequest>> getOpenPlayerRequests(UUID playerId) {
-        return databaseManager.getOpenRequestsByPlayer(playerId);
+        List<ModRequest> requests = activeRequests.getByPlayer(playerId);
+        requests.replaceAll(ModRequest::copy);
+        requests.sort((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()));
+        return CompletableFuture.completedFuture(requests);
     }
 
     public CompletableFuture<List<ModRequest>> getRequestsByStatus(ModRequestStatus status) {
+        if (isActiveStatus(status)) {
+            List<ModRequest> requests = filterActive(status, null);
+            requests.sort((a, b) -> a.getCreatedAt().compareTo(b.getCreatedAt()));
+            return CompletableFuture.completedFuture(requests);
+        }
         return databaseManager.getRequestsByStatus(status);
     }
 
     public CompletableFuture<List<ModRequest>> getOpenRequests() {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                List<ModRequest> requests = databaseManager.getRequestsByStatus(ModRequestStatus.OPEN).get();
-                requests.addAll(databaseManager.getRequestsByStatus(ModRequestStatus.ELEVATED).get());
+        List<ModRequest> requests = activeRequests.getAll();
+        requests.replaceAll(ModRequest::copy);
+        requests.sort((a, b) -> a.getCreatedAt().compareTo(b.getCreatedAt()));
+        return CompletableFuture.completedFuture(requests);
+    }
 
-                requests.sort((a, b) -> a.getCreatedAt().compareTo(b.getCreatedAt()));
+    public CompletableFuture<List<ModRequest>> getRequests(ModRequestStatus status, String playerName) {
+        if (isActiveStatus(status)) {
+            List<ModRequest> requests = filterActive(status, playerName);
+            requests.sort((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()));
+            return CompletableFuture.completedFuture(requests);
+        }
 
-                return requests;
-            } catch (Exception e) {
-                plugin.getLogger().severe("Failed to get open requests: " + e.getMessage());
-                throw new RuntimeException("Failed to get open requests", e);
-            }
-        });
+        RequestQuery query = new RequestQuery();
+        if (status != null) {
+            query.setStatuses(EnumSet.of(status));
+        }
+        query.setPlayerName(playerName);
+        return databaseManager.queryRequests(query);
     }
 
-    public CompletableFuture<List<ModRequest>> getRequests(ModRequestStatus status, String playerName) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                List<ModRequest> requests = new ArrayList<>();
-
-                if (status != null) {
-                    requests = databaseManager.getRequestsByStatus(status).get();
-                } else {
-                    for (ModRequestStatus s : ModRequestStatus.values()) {
-                        requests.addAll(databaseManager.getRequestsByStatus(s).get());
+    /**
+     * Runs a paginated request lookup in the database
+     */
+    public CompletableFuture<List<ModRequest>> queryRequests(RequestQuery query) {
+        return databaseManager.queryRequests(query);
+    }
+
+    /**
+     * Counts the requests matching a query's filters
+     */
+    public CompletableFuture<Integer> countRequests(RequestQuery query) {
+        return databaseManager.countRequests(query);
+    }
+
+    public CompletableFuture<List<ModRequest>> getActiveRequests(String playerName) {
+        List<ModRequest> requests = filterActive(null, playerName);
+        requests.sort((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()));
+        return CompletableFuture.completedFuture(requests);
+    }
+
+    public CompletableFuture<Integer> countOpenRequests(UUID playerId) {
+        return CompletableFuture.completedFuture(openCounters.get(playerId));
+    }
+
+    public CompletableFuture<Boolean> canPlayerCreateRequest(UUID playerId) {
+        int maxRequests = plugin.getConfigManager().getInt("settings.max_requests_per_player", 5);
+        if (maxRequests <= 0) {
+            return CompletableFuture.completedFuture(true);
+        }
+
+        return countOpenRequests(playerId).thenApply(count -> count < maxRequests);
+    }
+
+    /**
+     * Claims a request with a single conditional UPDATE and mirrors the claim
+     * into the active request cache. The UPDATE does not check the status, so
+     * a closed request can be claimed too and its cached copy is dropped.
+     */
+    private CompletableFuture<Boolean> claim(int requestId, UUID staffId, String staffName, boolean force) {
+        return serialized(requestId, () -> {
+            LocalDateTime now = LocalDateTime.now();
+            return databaseManager.claimRequest(requestId, staffId, staffName, now, force).thenApply(success -> {
+                if (success) {
+                    closedRequests.invalidate(requestId);
+                    ModRequest updated = activeRequests.update(requestId, request -> {
+                        request.claim(staffId, staffName);
+                        request.setUpdatedAt(now);
+                    });
+                    if (updated != null) {
+                        eventBus.publish(new RequestClaimedEvent(updated, staffId, staffName, force));
                     }
                 }
+                return success;
+            });
+        });
+    }
 
-                if (playerName != null) {
-                    final String finalPlayerName = playerName.toLowerCase();
-                    requests = requests.stream()
-                            .filter(r -> r.getPlayerName().toLowerCase().contains(finalPlayerName))
-                            .collect(java.util.stream.Collectors.toList());
+    /**
+     * Moves an active request to a new status with a single conditional
+     * UPDATE. The updated request is built from the cached copy, so the row is
+     * only re-read if it was not cached. Discord notifications are stored in
+     * the same transaction as the UPDATE.
+     *
+     * @return The updated request, or null if it does not exist or is no
+     *         longer active
+     */
+    private CompletableFuture<ModRequest> transition(int requestId, ModRequestStatus target, UUID actorId,
+            String actorName) {
+        return serialized(requestId, () -> {
+            LocalDateTime now = LocalDateTime.now();
+            String eventType = switch (target) {
+                case COMPLETED -> "completed";
+                case CLOSED -> "closed";
+                default -> "elevated";
+            };
+            CompletableFuture<Boolean> transitioned = databaseManager.transitionRequest(requestId, target, actorId,
+                    actorName, now, notifications(eventType, actorName));
+            return transitioned.thenCompose(success -> {
+                if (!success) {
+                    return CompletableFuture.completedFuture(null);
                 }
 
-                requests.sort((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()));
+                closedRequests.invalidate(requestId);
 
-                return requests;
-            } catch (Exception e) {
-                plugin.getLogger().severe("Failed to get requests: " + e.getMessage());
-                throw new RuntimeException("Failed to get requests", e);
+                ModRequest updated = activeRequests.update(requestId, request -> {
+                    switch (target) {
+                        case COMPLETED -> request.complete(actorId, actorName);
+                        case CLOSED -> request.close(actorId, actorName);
+                        default -> request.elevate();
+                    }
+                    request.setUpdatedAt(now);
+                    if (request.getClosedAt() != null) {
+                        request.setClosedAt(now);
+                    }
+                });
+
+                CompletableFuture<ModRequest> result = updated != null
+                        ? CompletableFuture.completedFuture(updated.copy())
+                        : databaseManager.getRequestWithNotes(requestId);
+                return result.thenApply(request -> {
+                    if (request != null && !isActiveStatus(target)) {
+                        openCounters.release(request.getPlayerId());
+                    }
+                    if (request != null) {
+                        eventBus.publish(new RequestTransitionedEvent(request, target, actorId, actorName));
+                    }
+                    return request;
+                });
+            });
+        });
+    }
+
+    /**
+     * Runs a change of one request once the previous change of the same
+     * request, including its cache update, has finished. The cache then sees
+     * the changes of a request in the order the database applied them.
+     */
+    private <T> CompletableFuture<T> serialized(int requestId, Supplier<CompletableFuture<T>> change) {
+        CompletableFuture<T> done = new CompletableFuture<>();
+        CompletableFuture<?> previous = pendingChanges.put(requestId, done);
+        CompletableFuture<?> ready = previous != null
+                ? previous.handle((ignored, throwable) -> null)
+                : CompletableFuture.completedFuture(null);
+
+        ready.thenCompose(ignored -> change.get()).whenComplete((result, throwable) -> {
+            pendingChanges.remove(requestId, done);
+            if (throwable != null) {
+                done.completeExceptionally(throwable instanceof CompletionException && throwable.getCause() != null
+                        ? throwable.getCause()
+                        : throwable);
+            } else {
+                done.complete(result);
             }
         });
+        return done;
     }
 
-    public CompletableFuture<List<ModRequest>> getActiveRequests(String playerName) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                List<ModRequest> requests = new ArrayList<>();
-
-                requests.addAll(databaseManager.getRequestsByStatus(ModRequestStatus.OPEN).get());
-                requests.addAll(databaseManager.getRequestsByStatus(ModRequestStatus.ELEVATED).get());
-
-                if (playerName != null) {
-                    final String finalPlayerName = playerName.toLowerCase();
-                    requests = requests.stream()
-                            .filter(r -> r.getPlayerName().toLowerCase().contains(finalPlayerName))
-                            .collect(java.util.stream.Collectors.toList());
-                }
+    /**
+     * Loads a request from the database, sharing one query between
+     * concurrent lookups of the same ID. Every caller gets its own copy of
+     * the loaded request. IDs found missing are remembered for
+     * settings.missing_request_cache_ms, unless a request was created while
+     * the lookup ran.
+     */
+    private CompletableFuture<ModRequest> loadShared(Map<Integer, CompletableFuture<ModRequest>> lookups, int id,
+            IntFunction<CompletableFuture<ModRequest>> loader) {
+        if (isKnownMissing(id)) {
+            return CompletableFuture.completedFuture(null);
+        }
 
-                requests.sort((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()));
+        CompletableFuture<ModRequest> shared = new CompletableFuture<>();
+        CompletableFuture<ModRequest> existing = lookups.putIfAbsent(id, shared);
+        if (existing != null) {
+            return existing.thenApply(ModRequestService::copyOf);
+        }
 
-                return requests;
-            } catch (Exception e) {
-                plugin.getLogger().severe("Failed to get active requests: " + e.getMessage());
-                throw new RuntimeException("Failed to get active requests", e);
+        long creationsBefore = creations.get();
+        loader.apply(id).whenComplete((request, throwable) -> {
+            lookups.remove(id, shared);
+            if (throwable != null) {
+                shared.completeExceptionally(throwable);
+                return;
+            }
+            if (request == null && creations.get() == creationsBefore) {
+                markMissing(id);
             }
+            shared.complete(request);
         });
+        return shared.thenApply(ModRequestService::copyOf);
     }
 
-    public CompletableFuture<Integer> countOpenRequests(UUID playerId) {
-        return databaseManager.countOpenRequestsByPlayer(playerId);
+    /**
+     * Gets the hook that stores the Discord notifications of a change, or null
+     * if there are none to store
+     */
+    private DatabaseManager.ChangeHook notifications(String eventType, String actorName) {
+        DiscordService discordService = plugin.getDiscordService();
+        return discordService != null ? discordService.notifications(eventType, actorName) : null;
     }
 
-    public CompletableFuture<Boolean> canPlayerCreateRequest(UUID playerId) {
-        int maxRequests = plugin.getConfigManager().getInt("settings.max_requests_per_player", 5);
-        if (maxRequests <= 0) {
-            return CompletableFuture.completedFuture(true);
+    private static ModRequest copyOf(ModRequest request) {
+        return request != null ? request.copy() : null;
+    }
+
+    private boolean isKnownMissing(int id) {
+        Long until = missingUntil.get(id);
+        if (until == null) {
+            return false;
+        }
+        if (System.nanoTime() - until > 0) {
+            missingUntil.remove(id, until);
+            return false;
         }
+        return true;
+    }
 
-        return countOpenRequests(playerId).thenApply(count -> count < maxRequests);
+    private void markMissing(int id) {
+        int ttlMillis = plugin.getConfigManager().getInt("settings.missing_request_cache_ms", 5000);
+        if (ttlMillis <= 0) {
+            return;
+        }
+        if (missingUntil.size() >= MAX_MISSING_IDS) {
+            missingUntil.clear();
+        }
+        missingUntil.put(id, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis));
+    }
+
+    private int getClosedCacheMaxEntries() {
+        return plugin.getConfigManager().getInt("settings.closed_cache.max_entries", 1000);
+    }
+
+    private long getClosedCacheMaxWeight() {
+        return plugin.getConfigManager().getInt("settings.closed_cache.max_weight", 2_000_000);
+    }
+
+    private List<ModRequest> getActiveSnapshot() {
+        return activeRequests.getAll();
+    }
+
+    /**
+     * Gets copies of the cached active requests that match the filters, so
+     * callers such as {@link #loadNotes} can modify them
+     */
+    private List<ModRequest> filterActive(ModRequestStatus status, String playerName) {
+        List<ModRequest> requests = activeRequests.getAll();
+
+        if (status != null) {
+            requests.removeIf(r -> r.getStatus() != status);
+        }
+
+        if (playerName != null) {
+            final String finalPlayerName = playerName.toLowerCase();
+            requests.removeIf(r -> !r.getPlayerName().toLowerCase().contains(finalPlayerName));
+        }
+
+        requests.replaceAll(ModRequest::copy);
+        return requests;
+    }
+
+    private static boolean isActiveStatus(ModRequestStatus status) {
+        return status == ModRequestStatus.OPEN || status == ModRequestStatus.ELEVATED;
     }
 }
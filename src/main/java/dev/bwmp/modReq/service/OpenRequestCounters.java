@@ -0,0 +1,74 @@
+package dev.bwmp.modReq.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import dev.bwmp.modReq.model.ModRequest;
+
+/**
+ * Number of active requests per player, used to enforce the per-player
+ * quota. A slot is reserved before a request is inserted, so concurrent
+ * creates by the same player cannot exceed the limit. Counters are never
+ * removed: a counter that dropped to zero may still be in use by a
+ * concurrent reservation.
+ */
+public class OpenRequestCounters {
+
+    private final Map<UUID, AtomicInteger> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Replaces all counters with the counts of the given requests
+     *
+     * @param activeRequests Every active request
+     */
+    public void load(Collection<ModRequest> activeRequests) {
+        counters.clear();
+        for (ModRequest request : activeRequests) {
+            counter(request.getPlayerId()).incrementAndGet();
+        }
+    }
+
+    /**
+     * Takes a slot for a new request if the player is below the limit
+     *
+     * @param playerId The player's UUID
+     * @param limit    Maximum active requests, or 0 or less for no limit
+     * @return true if a slot was reserved and must be released if the
+     *         request is not created
+     */
+    public boolean tryReserve(UUID playerId, int limit) {
+        AtomicInteger counter = counter(playerId);
+        while (true) {
+            int current = counter.get();
+            if (limit > 0 && current >= limit) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back a slot after a failed create or when a request is completed
+     * or closed
+     */
+    public void release(UUID playerId) {
+        AtomicInteger counter = counters.get(playerId);
+        if (counter != null) {
+            counter.updateAndGet(count -> Math.max(0, count - 1));
+        }
+    }
+
+    public int get(UUID playerId) {
+        AtomicInteger counter = counters.get(playerId);
+        return counter != null ? counter.get() : 0;
+    }
+
+    private AtomicInteger counter(UUID playerId) {
+        return counters.computeIfAbsent(playerId, id -> new AtomicInteger());
+    }
+}
@@ -0,0 +1,120 @@
+package dev.bwmp.modReq.service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import dev.bwmp.modReq.config.ConfigManager;
+
+/**
+ * Token buckets limiting how often an action may be performed, both per
+ * player and across the server. Each bucket holds up to its burst size and
+ * refills continuously at its per-minute rate. A rate of 0 disables that
+ * bucket.
+ */
+public class RateLimiter {
+
+    private static final long NANOS_PER_MINUTE = 60_000_000_000L;
+
+    private static final class Bucket {
+
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long lastRefill;
+
+        Bucket(int burst, int perMinute, long now) {
+            this.capacity = Math.max(1, burst);
+            this.tokensPerNano = (double) perMinute / NANOS_PER_MINUTE;
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        synchronized boolean tryTake(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+
+        synchronized void refund() {
+            tokens = Math.min(capacity, tokens + 1);
+        }
+
+        synchronized boolean isIdleSince(long cutoff) {
+            return lastRefill < cutoff;
+        }
+    }
+
+    private final int playerBurst;
+    private final int playerPerMinute;
+    private final Bucket global;
+    private final Map<UUID, Bucket> players = new ConcurrentHashMap<>();
+
+    /**
+     * @param playerBurst     Actions a player may perform back to back
+     * @param playerPerMinute Sustained actions per player per minute
+     * @param globalBurst     Actions all players together may perform back
+     *                        to back
+     * @param globalPerMinute Sustained actions per minute across the server
+     */
+    public RateLimiter(int playerBurst, int playerPerMinute, int globalBurst, int globalPerMinute) {
+        this.playerBurst = playerBurst;
+        this.playerPerMinute = playerPerMinute;
+        this.global = globalPerMinute > 0 ? new Bucket(globalBurst, globalPerMinute, System.nanoTime()) : null;
+    }
+
+    /**
+     * Reads a limiter from settings.rate_limits.&lt;action&gt;
+     */
+    public static RateLimiter fromConfig(ConfigManager configManager, String action, int playerBurst,
+            int playerPerMinute, int globalBurst, int globalPerMinute) {
+        String path = "settings.rate_limits." + action + ".";
+        return new RateLimiter(
+                configManager.getInt(path + "player_burst", playerBurst),
+                configManager.getInt(path + "player_per_minute", playerPerMinute),
+                configManager.getInt(path + "global_burst", globalBurst),
+                configManager.getInt(path + "global_per_minute", globalPerMinute));
+    }
+
+    /**
+     * Takes a token from the player's bucket and the global one
+     *
+     * @param playerId The acting player
+     * @return false if either bucket is empty; nothing is taken then
+     */
+    public boolean tryAcquire(UUID playerId) {
+        long now = System.nanoTime();
+
+        Bucket player = null;
+        if (playerPerMinute > 0) {
+            player = players.computeIfAbsent(playerId, id -> new Bucket(playerBurst, playerPerMinute, now));
+            if (!player.tryTake(now)) {
+                return false;
+            }
+        }
+
+        if (global != null && !global.tryTake(now)) {
+            if (player != null) {
+                player.refund();
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Forgets players whose buckets have not been used for a while. A
+     * bucket unused that long has refilled anyway, unless the rate is
+     * extremely low.
+     *
+     * @param idleNanos How long a bucket must have been unused
+     */
+    public void evictIdle(long idleNanos) {
+        long cutoff = System.nanoTime() - idleNanos;
+        players.values().removeIf(bucket -> bucket.isIdleSince(cutoff));
+    }
+}
@@ -0,0 +1,112 @@
+package dev.bwmp.modReq.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import dev.bwmp.modReq.model.ModRequest;
+
+/**
+ * Immutable snapshot of active request IDs used to answer tab completions
+ * without any I/O. The snapshot is rebuilt off the main thread whenever the
+ * active request set changes and swapped in atomically.
+ */
+public class RequestCompletionIndex {
+
+    private static final int[] NO_IDS = new int[0];
+
+    private record Snapshot(int[] openIds, Map<UUID, int[]> claimedIds) {
+    }
+
+    private final Supplier<Collection<ModRequest>> source;
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+    private volatile Snapshot snapshot = new Snapshot(NO_IDS, Map.of());
+
+    public RequestCompletionIndex(Supplier<Collection<ModRequest>> source) {
+        this.source = source;
+    }
+
+    /**
+     * Queues an asynchronous rebuild. Calls made while a rebuild is already
+     * queued are coalesced into it.
+     */
+    public void scheduleRefresh() {
+        if (refreshQueued.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("ModReq-Completions").start(() -> {
+                refreshQueued.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    /**
+     * Rebuilds the snapshot on the calling thread
+     */
+    public synchronized void rebuild() {
+        Collection<ModRequest> requests = source.get();
+
+        int[] openIds = new int[requests.size()];
+        int count = 0;
+        Map<UUID, List<Integer>> claimed = new HashMap<>();
+
+        for (ModRequest request : requests) {
+            if (count == openIds.length) {
+                openIds = Arrays.copyOf(openIds, count * 2 + 1);
+            }
+            openIds[count++] = request.getId();
+
+            if (request.getClaimedBy() != null) {
+                claimed.computeIfAbsent(request.getClaimedBy(), k -> new ArrayList<>()).add(request.getId());
+            }
+        }
+
+        openIds = Arrays.copyOf(openIds, count);
+        Arrays.sort(openIds);
+
+        Map<UUID, int[]> claimedIds = new HashMap<>(claimed.size() * 2);
+        for (Map.Entry<UUID, List<Integer>> entry : claimed.entrySet()) {
+            int[] ids = entry.getValue().stream().mapToInt(Integer::intValue).sorted().toArray();
+            claimedIds.put(entry.getKey(), ids);
+        }
+
+        this.snapshot = new Snapshot(openIds, Map.copyOf(claimedIds));
+    }
+
+    /**
+     * Completes IDs of all active requests
+     *
+     * @param prefix The partially typed argument
+     * @return Matching request IDs
+     */
+    public List<String> completeOpen(String prefix) {
+        return filter(snapshot.openIds(), prefix);
+    }
+
+    /**
+     * Completes IDs of active requests claimed by the given staff member
+     *
+     * @param claimerId The staff member's UUID
+     * @param prefix    The partially typed argument
+     * @return Matching request IDs
+     */
+    public List<String> completeClaimed(UUID claimerId, String prefix) {
+        return filter(snapshot.claimedIds().getOrDefault(claimerId, NO_IDS), prefix);
+    }
+
+    private static List<String> filter(int[] ids, String prefix) {
+        List<String> completions = new ArrayList<>();
+        for (int id : ids) {
+            String value = Integer.toString(id);
+            if (prefix == null || value.startsWith(prefix)) {
+                completions.add(value);
+            }
+        }
+        return completions;
+    }
+}
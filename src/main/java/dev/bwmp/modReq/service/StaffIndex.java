@@ -0,0 +1,179 @@
+package dev.bwmp.modReq.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import dev.bwmp.modReq.ModReq;
+
+/**
+ * The online players and the ModReq permissions they hold. Broadcasts read it
+ * instead of checking every online player's permissions, and tab completion
+ * reads it because it runs off the server thread, where neither
+ * {@code getOnlinePlayers()} nor {@code hasPermission} may be called. It is
+ * updated on join and quit. Bukkit has no event for permission changes, so it
+ * is also refreshed on a timer and by {@link #refresh(Player)}.
+ */
+public class StaffIndex implements Listener {
+
+    private static final Player[] NO_PLAYERS = new Player[0];
+
+    private final ModReq plugin;
+    private volatile Player[] online = NO_PLAYERS;
+    private volatile Player[] users = NO_PLAYERS;
+    private volatile Player[] mods = NO_PLAYERS;
+    private volatile Player[] admins = NO_PLAYERS;
+
+    public StaffIndex(ModReq plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Registers the join/quit listeners, indexes the players already online
+     * and schedules the periodic refresh
+     */
+    public void start() {
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        rebuild();
+
+        long interval = plugin.getConfigManager().getInt("settings.staff_refresh_seconds", 30) * 20L;
+        if (interval > 0) {
+            plugin.getServer().getScheduler().runTaskTimer(plugin, this::rebuild, interval, interval);
+        }
+    }
+
+    /**
+     * All online players. Must not be modified.
+     */
+    public Player[] getOnline() {
+        return online;
+    }
+
+    /**
+     * Online players with modreq.mod. Must not be modified.
+     */
+    public Player[] getMods() {
+        return mods;
+    }
+
+    /**
+     * Online players with modreq.admin. Must not be modified.
+     */
+    public Player[] getAdmins() {
+        return admins;
+    }
+
+    /**
+     * Checks a ModReq permission without calling into the permission system,
+     * so it is safe from any thread. Non-player senders are asked directly.
+     *
+     * @param permission modreq.use, modreq.mod, modreq.admin, or null for a
+     *                   command anyone may use
+     */
+    public boolean hasPermission(CommandSender sender, String permission) {
+        if (permission == null) {
+            return true;
+        }
+        if (!(sender instanceof Player player)) {
+            return sender.hasPermission(permission);
+        }
+
+        Player[] holders = switch (permission) {
+            case "modreq.use" -> users;
+            case "modreq.mod" -> mods;
+            case "modreq.admin" -> admins;
+            default -> throw new IllegalArgumentException("Not indexed: " + permission);
+        };
+        for (Player holder : holders) {
+            if (holder.getUniqueId().equals(player.getUniqueId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Re-checks one player's permissions, e.g. after they were changed
+     */
+    public synchronized void refresh(Player player) {
+        UUID id = player.getUniqueId();
+        online = replace(online, id, player);
+        users = replace(users, id, player.hasPermission("modreq.use") ? player : null);
+        mods = replace(mods, id, player.hasPermission("modreq.mod") ? player : null);
+        admins = replace(admins, id, player.hasPermission("modreq.admin") ? player : null);
+    }
+
+    /**
+     * Re-checks the permissions of every online player
+     */
+    public synchronized void rebuild() {
+        List<Player> newOnline = new ArrayList<>();
+        List<Player> newUsers = new ArrayList<>();
+        List<Player> newMods = new ArrayList<>();
+        List<Player> newAdmins = new ArrayList<>();
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            newOnline.add(player);
+            if (player.hasPermission("modreq.use")) {
+                newUsers.add(player);
+            }
+            if (player.hasPermission("modreq.mod")) {
+                newMods.add(player);
+            }
+            if (player.hasPermission("modreq.admin")) {
+                newAdmins.add(player);
+            }
+        }
+        online = newOnline.toArray(NO_PLAYERS);
+        users = newUsers.toArray(NO_PLAYERS);
+        mods = newMods.toArray(NO_PLAYERS);
+        admins = newAdmins.toArray(NO_PLAYERS);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        refresh(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        synchronized (this) {
+            UUID id = event.getPlayer().getUniqueId();
+            online = replace(online, id, null);
+            users = replace(users, id, null);
+            mods = replace(mods, id, null);
+            admins = replace(admins, id, null);
+        }
+    }
+
+    /**
+     * Returns a copy of the array with the player's entry replaced, added or
+     * (if replacement is null) removed
+     */
+    private static Player[] replace(Player[] players, UUID id, Player replacement) {
+        List<Player> result = new ArrayList<>(players.length + 1);
+        boolean found = false;
+        for (Player player : players) {
+            if (player.getUniqueId().equals(id)) {
+                found = true;
+                if (replacement != null) {
+                    result.add(replacement);
+                }
+            } else {
+                result.add(player);
+            }
+        }
+
+        if (!found && replacement != null) {
+            result.add(replacement);
+        }
+        return result.toArray(NO_PLAYERS);
+    }
+}
@@ -0,0 +1,75 @@
+package dev.bwmp.modReq.service;
+
+import java.util.UUID;
+
+import org.bukkit.entity.Player;
+
+import dev.bwmp.modReq.ModReq;
+import dev.bwmp.modReq.event.NoteAddedEvent;
+import dev.bwmp.modReq.event.RequestClaimedEvent;
+import dev.bwmp.modReq.event.RequestCreatedEvent;
+import dev.bwmp.modReq.event.RequestEventBus;
+import dev.bwmp.modReq.event.RequestTransitionedEvent;
+import dev.bwmp.modReq.model.ModRequestStatus;
+import dev.bwmp.modReq.util.TextUtil;
+import net.kyori.adventure.text.Component;
+
+/**
+ * Tells online staff about request changes made by others
+ */
+public class StaffNotifier {
+
+    private final StaffIndex staffIndex;
+    private final BroadcastAggregator aggregator;
+
+    public StaffNotifier(ModReq plugin, StaffIndex staffIndex) {
+        this.staffIndex = staffIndex;
+        this.aggregator = new BroadcastAggregator(plugin, staffIndex);
+    }
+
+    public void register(RequestEventBus eventBus) {
+        eventBus.subscribe(RequestCreatedEvent.class, this::onCreated);
+        eventBus.subscribe(RequestClaimedEvent.class, this::onClaimed);
+        eventBus.subscribe(RequestTransitionedEvent.class, this::onTransitioned);
+        eventBus.subscribe(NoteAddedEvent.class, this::onNoteAdded);
+    }
+
+    private void onCreated(RequestCreatedEvent event) {
+        aggregator.requestCreated(event.requestId(), event.request().getPlayerName());
+    }
+
+    private void onClaimed(RequestClaimedEvent event) {
+        String action = event.forced() ? "force claimed" : "claimed";
+        broadcast(staffIndex.getMods(), event.staffId(),
+                TextUtil.prefixed("&f" + event.staffName() + " &7" + action + " request #" + event.requestId()));
+    }
+
+    private void onTransitioned(RequestTransitionedEvent event) {
+        if (event.status() == ModRequestStatus.ELEVATED) {
+            String actor = event.actorName() != null ? event.actorName() : "Someone";
+            broadcast(staffIndex.getAdmins(), null, TextUtil.format("&c[ModReq] &f" + actor + " &7elevated request #"
+                    + event.requestId() + " &c(ADMIN ATTENTION REQUIRED)"));
+            return;
+        }
+
+        String action = event.status() == ModRequestStatus.COMPLETED ? "completed" : "closed";
+        broadcast(staffIndex.getMods(), event.actorId(),
+                TextUtil.prefixed("&f" + event.actorName() + " &7" + action + " request #" + event.requestId()));
+    }
+
+    private void onNoteAdded(NoteAddedEvent event) {
+        broadcast(staffIndex.getMods(), event.note().getAuthorId(), TextUtil.prefixed(
+                "&f" + event.note().getAuthorName() + " &7added a note to request #" + event.requestId()));
+    }
+
+    /**
+     * Sends a message to the given staff, except the one who caused the change
+     */
+    private static void broadcast(Player[] recipients, UUID except, Component message) {
+        for (Player staff : recipients) {
+            if (!staff.getUniqueId().equals(except)) {
+                staff.sendMessage(message);
+            }
+        }
+    }
+}
@@ -0,0 +1,504 @@
+package dev.bwmp.modReq.service;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Delivers embeds to a single Discord webhook. Embeds are queued in a bounded
+ * queue and packed up to {@value #MAX_EMBEDS_PER_MESSAGE} per POST. Embeds
+ * that need their own message, to be edited later, are posted or edited
+ * one at a time through the same queue. The dispatcher honours Discord's
+ * rate limit headers: it waits out an exhausted bucket before the next
+ * request and retries after a 429.
+ * <p>
+ * Each webhook has its own dispatcher, so a throttled or failing webhook
+ * never holds up another. After too many consecutive deliveries that failed
+ * with a server error or an I/O error, a circuit breaker rejects new embeds
+ * for a cooldown period. The first delivery after the cooldown decides whether
+ * it closes again. Other client errors fail the delivery without counting
+ * toward the breaker.
+ * <p>
+ * Shutting down stops the dispatcher at its next wait. Embeds that were not
+ * delivered by then complete with a {@link CancellationException}, so the
+ * outbox keeps them for later.
+ */
+public class WebhookDispatcher {
+
+  /**
+   * Discord accepts at most 10 embeds per webhook message
+   */
+  static final int MAX_EMBEDS_PER_MESSAGE = 10;
+
+  /**
+   * Discord's limit on the combined text of all embeds in one message. The
+   * JSON length is used as a conservative estimate.
+   */
+  private static final int MAX_MESSAGE_CHARS = 6000;
+
+  private static final int MAX_ATTEMPTS = 5;
+  private static final long MAX_BACKOFF_MILLIS = 30000;
+
+  private enum Mode {
+    /**
+     * May share a message with other embeds
+     */
+    BATCH,
+
+    /**
+     * Posted as its own message; completes with the message ID
+     */
+    POST,
+
+    /**
+     * Replaces the embed of an existing message
+     */
+    EDIT
+  }
+
+  private record PendingEmbed(Mode mode, String embed, String messageId, int size,
+      CompletableFuture<String> future) {
+  }
+
+  private final Logger logger;
+  private final HttpClient httpClient;
+  private final WebhookRouter.Endpoint endpoint;
+  private final URI webhookUri;
+  private final Duration requestTimeout;
+  private final BlockingQueue<PendingEmbed> queue;
+  private final ReentrantLock batchLock = new ReentrantLock();
+  private final List<Thread> senders = new ArrayList<>();
+  private volatile boolean running = true;
+  private PendingEmbed carried;
+  private volatile long blockedUntil;
+
+  private int consecutiveFailures;
+  private long openUntil;
+  private boolean probing;
+
+  /**
+   * @param logger         Logger for delivery failures
+   * @param httpClient     Client used to send, configured with its own executor
+   * @param endpoint       The webhook to deliver to and its delivery settings
+   * @param requestTimeout Timeout of a single request
+   */
+  public WebhookDispatcher(Logger logger, HttpClient httpClient, WebhookRouter.Endpoint endpoint,
+      Duration requestTimeout) {
+    this.logger = logger;
+    this.httpClient = httpClient;
+    this.endpoint = endpoint;
+    this.webhookUri = URI.create(endpoint.url());
+    this.requestTimeout = requestTimeout;
+    this.queue = new ArrayBlockingQueue<>(Math.max(1, endpoint.queueCapacity()));
+    for (int i = 0; i < endpoint.concurrency(); i++) {
+      senders.add(Thread.ofVirtual().name("ModReq-Webhook-" + endpoint.name() + "-" + i).start(this::run));
+    }
+  }
+
+  public WebhookRouter.Endpoint getEndpoint() {
+    return endpoint;
+  }
+
+  /**
+   * Queues an embed for delivery
+   *
+   * @param embed The embed JSON object
+   * @return Completes once the message carrying the embed was accepted by
+   *         Discord, or exceptionally if it was dropped. Completes with a
+   *         {@link CancellationException} if the dispatcher stopped before
+   *         the embed was sent.
+   */
+  public CompletableFuture<Void> enqueue(String embed) {
+    return submit(Mode.BATCH, embed, null).thenApply(id -> null);
+  }
+
+  /**
+   * Queues an embed to be posted as its own message
+   *
+   * @param embed The embed JSON object
+   * @return Completes with the ID of the new message
+   */
+  public CompletableFuture<String> post(String embed) {
+    return submit(Mode.POST, embed, null);
+  }
+
+  /**
+   * Queues an edit that replaces the embed of a message posted earlier
+   *
+   * @param messageId The message to edit
+   * @param embed     The new embed
+   * @return Completes with the message ID, or with null if the message no
+   *         longer exists
+   */
+  public CompletableFuture<String> edit(String messageId, String embed) {
+    return submit(Mode.EDIT, embed, messageId);
+  }
+
+  private CompletableFuture<String> submit(Mode mode, String embed, String messageId) {
+    CompletableFuture<String> future = new CompletableFuture<>();
+    if (!running) {
+      future.completeExceptionally(new CancellationException("Webhook dispatcher is shut down"));
+      return future;
+    }
+    if (isCircuitOpen()) {
+      future.completeExceptionally(new IllegalStateException("Discord webhook '" + endpoint.name()
+          + "' is failing; deliveries are paused"));
+      return future;
+    }
+
+    PendingEmbed pending = new PendingEmbed(mode, embed, messageId, embed.length(), future);
+    if (!queue.offer(pending)) {
+      future.completeExceptionally(new IllegalStateException("Discord webhook queue is full"));
+    }
+    return future;
+  }
+
+  /**
+   * Stops accepting embeds and stops the senders. A request in flight is
+   * abandoned, and so are rate limit and retry waits. Everything not yet
+   * delivered completes with a {@link CancellationException}.
+   *
+   * @param timeoutMillis Maximum time to wait for the senders to stop
+   */
+  public void shutdown(long timeoutMillis) {
+    running = false;
+    senders.forEach(Thread::interrupt);
+    long deadline = System.currentTimeMillis() + timeoutMillis;
+    try {
+      for (Thread sender : senders) {
+        sender.join(Math.max(1, deadline - System.currentTimeMillis()));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    PendingEmbed pending;
+    while ((pending = queue.poll()) != null) {
+      pending.future().completeExceptionally(new CancellationException("Webhook dispatcher is shut down"));
+    }
+  }
+
+  private void run() {
+    while (running) {
+      List<PendingEmbed> batch;
+      try {
+        batch = nextBatch();
+      } catch (InterruptedException e) {
+        // Shutdown; the loop condition ends the sender
+        continue;
+      }
+
+      if (!batch.isEmpty()) {
+        deliver(batch);
+      }
+    }
+
+    batchLock.lock();
+    try {
+      if (carried != null) {
+        abandon(List.of(carried));
+        carried = null;
+      }
+    } finally {
+      batchLock.unlock();
+    }
+  }
+
+  private List<PendingEmbed> nextBatch() throws InterruptedException {
+    batchLock.lockInterruptibly();
+    try {
+      return takeBatch();
+    } finally {
+      batchLock.unlock();
+    }
+  }
+
+  private List<PendingEmbed> takeBatch() throws InterruptedException {
+    List<PendingEmbed> batch = new ArrayList<>(MAX_EMBEDS_PER_MESSAGE);
+    PendingEmbed first = carried != null ? carried : running ? queue.take() : queue.poll();
+    carried = null;
+    if (first == null) {
+      return batch;
+    }
+
+    batch.add(first);
+    if (first.mode() != Mode.BATCH) {
+      return batch;
+    }
+
+    int size = first.size();
+    while (batch.size() < MAX_EMBEDS_PER_MESSAGE) {
+      PendingEmbed next = queue.poll();
+      if (next == null) {
+        break;
+      }
+      if (next.mode() != Mode.BATCH || size + next.size() > MAX_MESSAGE_CHARS) {
+        carried = next;
+        break;
+      }
+      batch.add(next);
+      size += next.size();
+    }
+    return batch;
+  }
+
+  private void deliver(List<PendingEmbed> batch) {
+    StringBuilder payload = new StringBuilder(32 + batch.stream().mapToInt(PendingEmbed::size).sum());
+    payload.append("{\"embeds\":[");
+    for (int i = 0; i < batch.size(); i++) {
+      if (i > 0) {
+        payload.append(',');
+      }
+      payload.append(batch.get(i).embed());
+    }
+    payload.append("]}");
+
+    PendingEmbed first = batch.get(0);
+    HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.ofString(payload.toString());
+    HttpRequest.Builder builder = HttpRequest.newBuilder()
+        .timeout(requestTimeout)
+        .header("Content-Type", "application/json");
+    HttpRequest request = switch (first.mode()) {
+      case BATCH -> builder.uri(webhookUri).POST(body).build();
+      case POST -> builder.uri(withQuery(webhookUri, "wait=true")).POST(body).build();
+      case EDIT -> builder.uri(messageUri(first.messageId())).method("PATCH", body).build();
+    };
+
+    if (!allowDelivery()) {
+      IllegalStateException rejected = new IllegalStateException("Discord webhook '" + endpoint.name()
+          + "' is failing; deliveries are paused");
+      batch.forEach(pending -> pending.future().completeExceptionally(rejected));
+      return;
+    }
+
+    Exception failure = null;
+    boolean countsAsFailure = false;
+    for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+      if (!waitForRateLimit()) {
+        abandon(batch);
+        return;
+      }
+
+      HttpResponse<String> response;
+      try {
+        response = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+            .get(requestTimeout.toMillis() + 1000, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        // Interrupted by shutdown; the entries stay in the outbox
+        abandon(batch);
+        return;
+      } catch (Exception e) {
+        failure = e;
+        countsAsFailure = true;
+        if (attempt < MAX_ATTEMPTS && !backoff(attempt)) {
+          abandon(batch);
+          return;
+        }
+        continue;
+      }
+
+      updateRateLimit(response);
+      int status = response.statusCode();
+      if (status >= 200 && status < 300) {
+        String messageId = switch (first.mode()) {
+          case BATCH -> null;
+          case POST -> parseMessageId(response.body());
+          case EDIT -> first.messageId();
+        };
+        recordSuccess();
+        batch.forEach(pending -> pending.future().complete(messageId));
+        return;
+      }
+
+      if (status == 404 && first.mode() == Mode.EDIT) {
+        // The message was deleted in Discord
+        recordSuccess();
+        first.future().complete(null);
+        return;
+      }
+
+      failure = new IllegalStateException("Discord webhook failed with status: " + status + " - " + response.body());
+      countsAsFailure = status >= 500;
+      if (status == 429) {
+        blockFor(parseRetryAfter(response));
+      } else if (status >= 500) {
+        if (attempt < MAX_ATTEMPTS && !backoff(attempt)) {
+          abandon(batch);
+          return;
+        }
+      } else {
+        break;
+      }
+    }
+
+    if (countsAsFailure) {
+      recordFailure();
+    } else {
+      // Discord answered, so the webhook is reachable; a rejected payload or
+      // a rate limit says nothing about its health
+      releaseProbe();
+    }
+    logger.warning("Failed to deliver " + batch.size() + " Discord embed(s) to webhook '"
+        + endpoint.name() + "': " + failure.getMessage());
+    Exception cause = failure;
+    batch.forEach(pending -> pending.future().completeExceptionally(cause));
+  }
+
+  /**
+   * Fails a batch that was not delivered because the dispatcher is stopping
+   */
+  private void abandon(List<PendingEmbed> batch) {
+    releaseProbe();
+    CancellationException stopped = new CancellationException("Webhook dispatcher is shut down");
+    batch.forEach(pending -> pending.future().completeExceptionally(stopped));
+  }
+
+  private synchronized boolean isCircuitOpen() {
+    return openUntil != 0 && (probing || System.currentTimeMillis() < openUntil);
+  }
+
+  /**
+   * Checks the circuit breaker before a delivery. Once the cooldown is over,
+   * a single delivery is let through as a probe.
+   */
+  private synchronized boolean allowDelivery() {
+    if (openUntil == 0) {
+      return true;
+    }
+    if (probing || System.currentTimeMillis() < openUntil) {
+      return false;
+    }
+    probing = true;
+    return true;
+  }
+
+  private synchronized void releaseProbe() {
+    probing = false;
+  }
+
+  private synchronized void recordSuccess() {
+    if (openUntil != 0) {
+      logger.info("Discord webhook '" + endpoint.name() + "' recovered; resuming deliveries");
+    }
+    consecutiveFailures = 0;
+    openUntil = 0;
+    probing = false;
+  }
+
+  private synchronized void recordFailure() {
+    consecutiveFailures++;
+    if (probing || consecutiveFailures >= endpoint.failureThreshold()) {
+      if (openUntil == 0) {
+        logger.warning("Discord webhook '" + endpoint.name() + "' failed " + consecutiveFailures
+            + " times in a row; pausing deliveries for " + endpoint.cooldownMillis() / 1000 + "s");
+      }
+      openUntil = System.currentTimeMillis() + endpoint.cooldownMillis();
+      probing = false;
+    }
+  }
+
+  private URI messageUri(String messageId) {
+    String base = webhookUri.toString();
+    int query = base.indexOf('?');
+    String path = query >= 0 ? base.substring(0, query) : base;
+    String suffix = query >= 0 ? base.substring(query) : "";
+    return URI.create(path + "/messages/" + messageId + suffix);
+  }
+
+  private static URI withQuery(URI uri, String parameter) {
+    String base = uri.toString();
+    return URI.create(base + (base.indexOf('?') >= 0 ? "&" : "?") + parameter);
+  }
+
+  private static String parseMessageId(String body) {
+    try {
+      return JsonParser.parseString(body).getAsJsonObject().get("id").getAsString();
+    } catch (RuntimeException e) {
+      return null;
+    }
+  }
+
+  private void updateRateLimit(HttpResponse<String> response) {
+    String remaining = response.headers().firstValue("X-RateLimit-Remaining").orElse(null);
+    String resetAfter = response.headers().firstValue("X-RateLimit-Reset-After").orElse(null);
+    if ("0".equals(remaining) && resetAfter != null) {
+      blockFor(parseSeconds(resetAfter));
+    }
+  }
+
+  private synchronized void blockFor(long millis) {
+    blockedUntil = Math.max(blockedUntil, System.currentTimeMillis() + millis);
+  }
+
+  private long parseRetryAfter(HttpResponse<String> response) {
+    String header = response.headers().firstValue("Retry-After").orElse(null);
+    if (header != null) {
+      return parseSeconds(header);
+    }
+
+    try {
+      JsonObject body = JsonParser.parseString(response.body()).getAsJsonObject();
+      if (body.has("retry_after")) {
+        return (long) Math.ceil(body.get("retry_after").getAsDouble() * 1000);
+      }
+    } catch (RuntimeException ignored) {
+      // Not a JSON body; use the default below
+    }
+    return 1000;
+  }
+
+  private static long parseSeconds(String value) {
+    try {
+      return (long) Math.ceil(Double.parseDouble(value) * 1000);
+    } catch (NumberFormatException e) {
+      return 1000;
+    }
+  }
+
+  /**
+   * @return false if the dispatcher was shut down instead
+   */
+  private boolean waitForRateLimit() {
+    long wait = blockedUntil - System.currentTimeMillis();
+    return wait <= 0 ? running : pause(Math.min(wait, MAX_BACKOFF_MILLIS));
+  }
+
+  /**
+   * @return false if the dispatcher was shut down instead
+   */
+  private boolean backoff(int attempt) {
+    return pause(Math.min(MAX_BACKOFF_MILLIS, 500L << (attempt - 1)));
+  }
+
+  /**
+   * Sleeps unless the dispatcher is shutting down. Shutdown interrupts the
+   * senders, which ends the sleep early.
+   *
+   * @return false if the dispatcher was shut down instead
+   */
+  private boolean pause(long millis) {
+    if (!running) {
+      return false;
+    }
+    try {
+      Thread.sleep(millis);
+      return running;
+    } catch (InterruptedException e) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,161 @@
+package dev.bwmp.modReq.service;
+
+import dev.bwmp.modReq.config.ConfigManager;
+import dev.bwmp.modReq.model.ModRequest;
+import dev.bwmp.modReq.model.ModRequestStatus;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Decides which Discord webhooks receive an event. Webhooks are configured
+ * by name under discord.webhooks; discord.webhook_url defines the webhook
+ * named {@value #DEFAULT_WEBHOOK}. Rules under discord.routes match on event
+ * type, request status and world. Without any rules, every event goes to the
+ * default webhook.
+ */
+public class WebhookRouter {
+
+  /**
+   * Name of the webhook configured by discord.webhook_url
+   */
+  public static final String DEFAULT_WEBHOOK = "default";
+
+  /**
+   * Delivery settings of one webhook
+   *
+   * @param failureThreshold Consecutive failed deliveries that open the
+   *                         circuit breaker
+   * @param cooldownMillis   How long an open circuit rejects deliveries
+   */
+  public record Endpoint(String name, String url, int queueCapacity, int concurrency, int failureThreshold,
+      long cooldownMillis) {
+  }
+
+  private record Route(String webhook, Set<String> events, Set<ModRequestStatus> statuses, Set<String> worlds) {
+
+    boolean matches(String eventType, ModRequest request) {
+      return (events.isEmpty() || events.contains(eventType))
+          && (statuses.isEmpty() || statuses.contains(request.getStatus()))
+          && (worlds.isEmpty() || (request.getWorldName() != null
+              && worlds.contains(request.getWorldName().toLowerCase(Locale.ROOT))));
+    }
+  }
+
+  private record Routing(Map<String, Endpoint> endpoints, List<Route> routes) {
+  }
+
+  private final Logger logger;
+  private volatile Routing routing = new Routing(Map.of(), List.of());
+
+  public WebhookRouter(ConfigManager configManager, Logger logger) {
+    this.logger = logger;
+    compile(configManager);
+  }
+
+  /**
+   * Rebuilds the webhooks and routes from the current configuration
+   */
+  public void compile(ConfigManager configManager) {
+    int defaultCapacity = configManager.getInt("discord.queue_capacity", 500);
+    Map<String, Endpoint> endpoints = new HashMap<>();
+
+    String legacyUrl = configManager.getString("discord.webhook_url", "");
+    if (!legacyUrl.isEmpty()) {
+      endpoints.put(DEFAULT_WEBHOOK, new Endpoint(DEFAULT_WEBHOOK, legacyUrl, defaultCapacity, 1, 5, 60000));
+    }
+
+    ConfigurationSection webhooks = configManager.getConfigurationSection("discord.webhooks");
+    if (webhooks != null) {
+      for (String name : webhooks.getKeys(false)) {
+        ConfigurationSection section = webhooks.getConfigurationSection(name);
+        String url = section != null ? section.getString("url", "") : webhooks.getString(name, "");
+        if (url == null || url.isEmpty()) {
+          continue;
+        }
+
+        int capacity = section != null ? section.getInt("queue_capacity", defaultCapacity) : defaultCapacity;
+        int concurrency = section != null ? section.getInt("concurrency", 1) : 1;
+        int failureThreshold = section != null ? section.getInt("failure_threshold", 5) : 5;
+        int cooldownSeconds = section != null ? section.getInt("cooldown_seconds", 60) : 60;
+        endpoints.put(name, new Endpoint(name, url, capacity, Math.max(1, concurrency), Math.max(1, failureThreshold),
+            Math.max(1, cooldownSeconds) * 1000L));
+      }
+    }
+
+    List<Route> routes = new ArrayList<>();
+    for (Map<?, ?> rule : configManager.getMapList("discord.routes")) {
+      Object webhook = rule.get("webhook");
+      if (webhook == null || !endpoints.containsKey(webhook.toString())) {
+        logger.warning("Ignoring Discord route to unknown webhook: " + webhook);
+        continue;
+      }
+
+      Set<ModRequestStatus> statuses = new HashSet<>();
+      for (String status : readList(rule.get("statuses"))) {
+        try {
+          statuses.add(ModRequestStatus.valueOf(status.toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException e) {
+          logger.warning("Ignoring unknown status in Discord route: " + status);
+        }
+      }
+
+      routes.add(new Route(webhook.toString(), Set.copyOf(readList(rule.get("events"))), Set.copyOf(statuses),
+          Set.copyOf(readList(rule.get("worlds")))));
+    }
+
+    this.routing = new Routing(Map.copyOf(endpoints), List.copyOf(routes));
+  }
+
+  /**
+   * Gets the webhooks that should receive an event
+   *
+   * @param eventType created, elevated, completed or closed
+   * @param request   The request in its state after the event
+   * @return Names of the matching webhooks, in rule order
+   */
+  public Set<String> route(String eventType, ModRequest request) {
+    Routing current = routing;
+    if (current.routes().isEmpty()) {
+      return current.endpoints().containsKey(DEFAULT_WEBHOOK) ? Set.of(DEFAULT_WEBHOOK) : Set.of();
+    }
+
+    Set<String> targets = new LinkedHashSet<>();
+    for (Route route : current.routes()) {
+      if (route.matches(eventType, request)) {
+        targets.add(route.webhook());
+      }
+    }
+    return targets;
+  }
+
+  /**
+   * @return The webhook's settings, or null if no such webhook is configured
+   */
+  public Endpoint getEndpoint(String name) {
+    return routing.endpoints().get(name);
+  }
+
+  public Collection<Endpoint> getEndpoints() {
+    return routing.endpoints().values();
+  }
+
+  private static List<String> readList(Object value) {
+    List<String> values = new ArrayList<>();
+    if (value instanceof Collection<?> collection) {
+      collection.forEach(item -> values.add(item.toString().toLowerCase(Locale.ROOT)));
+    } else if (value != null) {
+      values.add(value.toString().toLowerCase(Locale.ROOT));
+    }
+    return values;
+  }
+}
@@ -0,0 +1,58 @@
+package dev.bwmp.modReq.util;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor for blocking I/O (JDBC, HTTP) that runs every task on its own
+ * virtual thread, with at most a fixed number of tasks running at once.
+ * Keeps plugin I/O off the shared ForkJoin common pool.
+ */
+public class BoundedVirtualExecutor implements Executor {
+
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+
+    /**
+     * @param name           Prefix for the virtual thread names
+     * @param maxConcurrency Maximum number of tasks running at the same time
+     */
+    public BoundedVirtualExecutor(String name, int maxConcurrency) {
+        this.delegate = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+        this.permits = new Semaphore(Math.max(1, maxConcurrency), true);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        delegate.execute(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    /**
+     * Stops accepting tasks and waits for running ones to finish
+     *
+     * @param timeoutMillis Maximum time to wait
+     * @return true if all tasks finished in time
+     */
+    public boolean shutdown(long timeoutMillis) {
+        delegate.shutdown();
+        try {
+            if (delegate.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        delegate.shutdownNow();
+        return false;
+    }
+}
@@ -0,0 +1,201 @@
+package dev.bwmp.modReq.database;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dev.bwmp.modReq.ModReq;
+import dev.bwmp.modReq.config.ConfigManager;
+import dev.bwmp.modReq.model.ModRequestStatus;
+
+/**
+ * Runs the real schema and migrations on H2 and checks that the hot lookups
+ * and conditional updates in {@link DatabaseManager} are answered from an
+ * index rather than a scan. {@link MySqlQueryPlanTest} runs the same checks
+ * against MySQL.
+ */
+class DatabaseQueryPlanTest {
+
+    private static final byte[] PLAYER = UuidCodec.toBytes(UUID.randomUUID());
+
+    private Path dataFolder;
+    DatabaseManager databaseManager;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dataFolder = Files.createTempDirectory("modreq-plans");
+
+        ConfigManager config = mock(ConfigManager.class,
+                invocation -> setting(invocation.getArgument(0), invocation.getArgument(1)));
+        ModReq plugin = mock(ModReq.class);
+        when(plugin.getConfigManager()).thenReturn(config);
+        when(plugin.getDataFolder()).thenReturn(dataFolder.toFile());
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("ModReqTest"));
+
+        databaseManager = new DatabaseManager(plugin);
+        databaseManager.initialize();
+    }
+
+    /**
+     * Answers a config lookup. Every setting keeps its default here, which is
+     * an H2 file database.
+     */
+    Object setting(String key, Object defaultValue) {
+        return defaultValue;
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        databaseManager.shutdown();
+        try (Stream<Path> files = Files.walk(dataFolder)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void statusListsUseStatusCreatedIndex() throws SQLException {
+        assertUsesIndex(explain(DatabaseManager.REQUESTS_BY_STATUS_SQL, ModRequestStatus.OPEN.getCode()),
+                "IDX_REQUESTS_STATUS_CREATED");
+        assertUsesIndex(explain(DatabaseManager.ACTIVE_REQUESTS_SQL), "IDX_REQUESTS_STATUS_CREATED");
+    }
+
+    @Test
+    void playerLookupsUsePlayerStatusIndex() throws SQLException {
+        assertUsesIndex(explain(DatabaseManager.REQUESTS_BY_PLAYER_SQL, PLAYER), "IDX_REQUESTS_PLAYER_STATUS");
+        assertUsesIndex(explain(DatabaseManager.OPEN_REQUESTS_BY_PLAYER_SQL, PLAYER),
+                "IDX_REQUESTS_PLAYER_STATUS");
+        assertUsesIndex(explain(DatabaseManager.COUNT_OPEN_BY_PLAYER_SQL, PLAYER), "IDX_REQUESTS_PLAYER_STATUS");
+    }
+
+    @Test
+    void filteredListPagesUseCompositeIndices() throws SQLException {
+        RequestQuery byStatus = new RequestQuery();
+        byStatus.setStatuses(EnumSet.of(ModRequestStatus.OPEN, ModRequestStatus.ELEVATED));
+        byStatus.setOrder(RequestQuery.Order.OLDEST_FIRST);
+        byStatus.setAfter(LocalDateTime.now(), 10);
+        byStatus.setLimit(10);
+        assertUsesIndex(explainQuery(byStatus), "IDX_REQUESTS_STATUS_CREATED");
+
+        RequestQuery byPlayer = new RequestQuery();
+        byPlayer.setPlayerId(UUID.randomUUID());
+        byPlayer.setLimit(10);
+        assertUsesIndex(explainQuery(byPlayer), "IDX_REQUESTS_PLAYER_STATUS");
+    }
+
+    @Test
+    void ownListUsesPlayerStatusIndex() throws SQLException {
+        RequestQuery own = new RequestQuery();
+        own.setPlayerId(UUID.randomUUID());
+        own.setOrder(RequestQuery.Order.ACTIVE_FIRST);
+        own.setLimit(10);
+        own.setOffset(10);
+        assertUsesIndex(explainQuery(own), "IDX_REQUESTS_PLAYER_STATUS");
+    }
+
+    @Test
+    void playerNameFilterNarrowsByStatus() throws SQLException {
+        RequestQuery byName = new RequestQuery();
+        byName.setStatuses(EnumSet.of(ModRequestStatus.OPEN));
+        byName.setPlayerName("Steve_");
+        byName.setOrder(RequestQuery.Order.ACTIVE_FIRST);
+        byName.setLimit(10);
+        assertUsesIndex(explainQuery(byName), "IDX_REQUESTS_STATUS_CREATED");
+
+        // The substring match alone cannot use an index. Only the explicit
+        // "player <name>" filter of staff sends it, so just check it is valid.
+        byName.setStatuses(EnumSet.noneOf(ModRequestStatus.class));
+        byName.setOffset(10);
+        explainQuery(byName);
+    }
+
+    @Test
+    void conditionalUpdatesUsePrimaryKey() throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        assertUsesIndex(explain(DatabaseManager.claimSql(false), PLAYER, "staff", now, 1), "PRIMARY");
+        assertUsesIndex(explain(DatabaseManager.claimSql(true), PLAYER, "staff", now, 1), "PRIMARY");
+        assertUsesIndex(explain(DatabaseManager.UNCLAIM_SQL, now, 1), "PRIMARY");
+        assertUsesIndex(explain(DatabaseManager.transitionSql(ModRequestStatus.CLOSED),
+                ModRequestStatus.CLOSED.getCode(), PLAYER, "staff", now, now, 1), "PRIMARY");
+        assertUsesIndex(explain(DatabaseManager.transitionSql(ModRequestStatus.ELEVATED),
+                ModRequestStatus.ELEVATED.getCode(), now, 1), "PRIMARY");
+    }
+
+    @Test
+    void noteLookupUsesRequestIndex() throws SQLException {
+        assertNoScan(explain(DatabaseManager.notesSql(3), 1, 2, 3));
+    }
+
+    @Test
+    void outboxQueriesUseOutboxIndices() throws SQLException {
+        assertUsesIndex(explain(DatabaseManager.DUE_OUTBOX_SQL, Timestamp.valueOf(LocalDateTime.now()), 50),
+                "IDX_OUTBOX_NEXT_ATTEMPT");
+        assertUsesIndex(explain(DatabaseManager.COALESCE_OUTBOX_SQL, "key", "created", "{}", 1, "staff"),
+                "IDX_OUTBOX_REQUEST_WEBHOOK");
+        assertNoScan(explain(DatabaseManager.DISCORD_MESSAGE_SQL, 1, "staff"));
+    }
+
+    private String explainQuery(RequestQuery query) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        String sql = DatabaseManager.querySql(query, params);
+        return explain(sql, params.toArray());
+    }
+
+    /**
+     * Gets the plan of a statement, upper case, with TABLESCAN wherever a
+     * table is read in full
+     */
+    String explain(String sql, Object... params) throws SQLException {
+        try (Connection conn = databaseManager.getConnection();
+                PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + sql)) {
+            bind(stmt, params);
+
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+            return plan.toString().toUpperCase(Locale.ROOT);
+        }
+    }
+
+    static void bind(PreparedStatement stmt, Object... params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            stmt.setObject(i + 1, params[i]);
+        }
+    }
+
+    private static void assertUsesIndex(String plan, String index) {
+        assertTrue(plan.contains(index), "expected " + index + " in plan:\n" + plan);
+        assertNoScan(plan);
+    }
+
+    private static void assertNoScan(String plan) {
+        assertFalse(plan.contains("TABLESCAN"), "unexpected table scan in plan:\n" + plan);
+    }
+}
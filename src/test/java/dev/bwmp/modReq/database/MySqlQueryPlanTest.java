@@ -0,0 +1,171 @@
+package dev.bwmp.modReq.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import dev.bwmp.modReq.model.ModRequestStatus;
+
+/**
+ * Runs the checks of {@link DatabaseQueryPlanTest} against MySQL, whose
+ * optimizer picks plans differently from H2. Skipped when Docker is not
+ * available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class MySqlQueryPlanTest extends DatabaseQueryPlanTest {
+
+    private static final int SEED_REQUESTS = 5000;
+    private static final int SEED_PLAYERS = 250;
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    @Override
+    Object setting(String key, Object defaultValue) {
+        return switch (key) {
+            case "database.type" -> "mysql";
+            case "database.host" -> MYSQL.getHost();
+            case "database.port" -> MYSQL.getMappedPort(MySQLContainer.MYSQL_PORT);
+            case "database.database" -> MYSQL.getDatabaseName();
+            case "database.username" -> MYSQL.getUsername();
+            case "database.password" -> MYSQL.getPassword();
+            default -> defaultValue;
+        };
+    }
+
+    /**
+     * Fills the tables once per container. On nearly empty tables MySQL reads
+     * everything regardless of the indices, which would hide the plans used
+     * in production.
+     */
+    @BeforeEach
+    void seed() throws SQLException {
+        try (Connection conn = databaseManager.getConnection();
+                Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM mod_requests")) {
+                if (rs.next() && rs.getInt(1) > 0) {
+                    return;
+                }
+            }
+
+            seedRequests(conn);
+            seedNotifications(conn);
+            stmt.execute("ANALYZE TABLE mod_requests, mod_request_notes, discord_outbox, discord_messages");
+        }
+    }
+
+    @Override
+    String explain(String sql, Object... params) throws SQLException {
+        try (Connection conn = databaseManager.getConnection();
+                PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + sql)) {
+            bind(stmt, params);
+
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String type = rs.getString("type");
+                    plan.append(rs.getString("table")).append(" type=").append(type)
+                            .append(" key=").append(rs.getString("key"));
+                    if ("ALL".equalsIgnoreCase(type)) {
+                        plan.append(" TABLESCAN");
+                    }
+                    plan.append('\n');
+                }
+            }
+            return plan.toString().toUpperCase(Locale.ROOT);
+        }
+    }
+
+    private static void seedRequests(Connection conn) throws SQLException {
+        byte[][] players = new byte[SEED_PLAYERS][];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = UuidCodec.toBytes(UUID.randomUUID());
+        }
+
+        String requestSql = "INSERT INTO mod_requests (player_id, player_name, description, status, world_name, x, y, z, yaw, pitch, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String noteSql = "INSERT INTO mod_request_notes (request_id, author_id, author_name, content, created_at) VALUES (?, ?, ?, ?, ?)";
+        LocalDateTime start = LocalDateTime.now().minusDays(30);
+
+        try (PreparedStatement requests = conn.prepareStatement(requestSql);
+                PreparedStatement notes = conn.prepareStatement(noteSql)) {
+            for (int i = 0; i < SEED_REQUESTS; i++) {
+                Timestamp createdAt = Timestamp.valueOf(start.plusMinutes(i));
+                requests.setBytes(1, players[i % SEED_PLAYERS]);
+                requests.setString(2, "player" + (i % SEED_PLAYERS));
+                requests.setString(3, "Seeded request " + i);
+                requests.setInt(4, seedStatus(i).getCode());
+                requests.setString(5, "world");
+                requests.setDouble(6, i);
+                requests.setDouble(7, 64);
+                requests.setDouble(8, -i);
+                requests.setFloat(9, 0);
+                requests.setFloat(10, 0);
+                requests.setTimestamp(11, createdAt);
+                requests.setTimestamp(12, createdAt);
+                requests.addBatch();
+
+                // IDs start at 1 on a fresh container
+                notes.setInt(1, i + 1);
+                notes.setString(2, UUID.randomUUID().toString());
+                notes.setString(3, "staff");
+                notes.setString(4, "Seeded note " + i);
+                notes.setTimestamp(5, createdAt);
+                notes.addBatch();
+            }
+            requests.executeBatch();
+            notes.executeBatch();
+        }
+    }
+
+    /**
+     * Mostly finished requests with a few active ones, as on a live server
+     */
+    private static ModRequestStatus seedStatus(int i) {
+        return switch (i % 20) {
+            case 0 -> ModRequestStatus.OPEN;
+            case 1 -> ModRequestStatus.ELEVATED;
+            default -> i % 2 == 0 ? ModRequestStatus.COMPLETED : ModRequestStatus.CLOSED;
+        };
+    }
+
+    private static void seedNotifications(Connection conn) throws SQLException {
+        String outboxSql = "INSERT INTO discord_outbox (idempotency_key, request_id, event_type, webhook, payload, attempts, next_attempt_at, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        String messageSql = "INSERT INTO discord_messages (request_id, webhook, message_id) VALUES (?, ?, ?)";
+        // Only a handful of entries are due, as after a short outage
+        LocalDateTime start = LocalDateTime.now().minusMinutes(10);
+
+        try (PreparedStatement outbox = conn.prepareStatement(outboxSql);
+                PreparedStatement messages = conn.prepareStatement(messageSql)) {
+            for (int i = 0; i < SEED_REQUESTS; i++) {
+                String webhook = i % 2 == 0 ? "staff" : "default";
+                outbox.setString(1, "seed:" + i);
+                outbox.setInt(2, i + 1);
+                outbox.setString(3, "created");
+                outbox.setString(4, webhook);
+                outbox.setString(5, "{}");
+                outbox.setInt(6, i % 3);
+                outbox.setTimestamp(7, Timestamp.valueOf(start.plusMinutes(i)));
+                outbox.setTimestamp(8, Timestamp.valueOf(start));
+                outbox.addBatch();
+
+                messages.setInt(1, i + 1);
+                messages.setString(2, webhook);
+                messages.setString(3, Long.toString(1_000_000_000_000_000L + i));
+                messages.addBatch();
+            }
+            outbox.executeBatch();
+            messages.executeBatch();
+        }
+    }
+}
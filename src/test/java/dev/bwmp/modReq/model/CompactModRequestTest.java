@@ -0,0 +1,143 @@
+package dev.bwmp.modReq.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Checks that {@link CompactModRequest} gives back the request it was made
+ * from, and measures its retained size against that {@link ModRequest}
+ */
+class CompactModRequestTest {
+
+    @Test
+    void roundTripKeepsEveryField() {
+        ModRequest request = closedRequest(3);
+        assertSameRequest(request, CompactModRequest.of(request).toModRequest());
+    }
+
+    @Test
+    void roundTripKeepsMissingValues() {
+        ModRequest request = new ModRequest();
+        request.setId(7);
+        request.setCreatedAt(null);
+        request.setUpdatedAt(null);
+
+        ModRequestNote note = new ModRequestNote();
+        note.setId(1);
+        note.setRequestId(7);
+        note.setCreatedAt(null);
+        request.getNotes().add(note);
+
+        ModRequest expanded = CompactModRequest.of(request).toModRequest();
+        assertNull(expanded.getPlayerId());
+        assertNull(expanded.getNotes().get(0).getAuthorId());
+        assertNull(expanded.getNotes().get(0).getCreatedAt());
+        assertSameRequest(request, expanded);
+    }
+
+    @Test
+    void compactFormIsLessThanHalfTheSize() {
+        assertCompact(closedRequest(0));
+        assertCompact(closedRequest(3));
+    }
+
+    private static void assertCompact(ModRequest request) {
+        CompactModRequest compact = CompactModRequest.of(request);
+
+        // Strings and status constants are shared by both forms, so only the
+        // structure around them is compared
+        List<Object> shared = new ArrayList<>(List.of((Object[]) ModRequestStatus.values()));
+        shared.add(request.getPlayerName());
+        shared.add(request.getDescription());
+        shared.add(request.getClaimedByName());
+        shared.add(request.getClosedByName());
+        shared.add(request.getCompletedByName());
+        shared.add(request.getWorldName());
+        for (ModRequestNote note : request.getNotes()) {
+            shared.add(note.getAuthorName());
+            shared.add(note.getContent());
+        }
+        GraphLayout sharedLayout = GraphLayout.parseInstance(shared.toArray());
+
+        long fullSize = GraphLayout.parseInstance(request).subtract(sharedLayout).totalSize();
+        long compactSize = GraphLayout.parseInstance(compact).subtract(sharedLayout).totalSize();
+        assertTrue(compactSize * 2 < fullSize, "compact " + compactSize + " bytes, full " + fullSize + " bytes with "
+                + request.getNotes().size() + " notes");
+    }
+
+    private static void assertSameRequest(ModRequest expected, ModRequest actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getPlayerId(), actual.getPlayerId());
+        assertEquals(expected.getPlayerName(), actual.getPlayerName());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getClaimedBy(), actual.getClaimedBy());
+        assertEquals(expected.getClaimedByName(), actual.getClaimedByName());
+        assertEquals(expected.getClosedBy(), actual.getClosedBy());
+        assertEquals(expected.getClosedByName(), actual.getClosedByName());
+        assertEquals(expected.getCompletedBy(), actual.getCompletedBy());
+        assertEquals(expected.getCompletedByName(), actual.getCompletedByName());
+        assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+        assertEquals(expected.getUpdatedAt(), actual.getUpdatedAt());
+        assertEquals(expected.getClosedAt(), actual.getClosedAt());
+        assertEquals(expected.getWorldName(), actual.getWorldName());
+        assertEquals(expected.getX(), actual.getX());
+        assertEquals(expected.getY(), actual.getY());
+        assertEquals(expected.getZ(), actual.getZ());
+        assertEquals(expected.getYaw(), actual.getYaw());
+        assertEquals(expected.getPitch(), actual.getPitch());
+
+        assertEquals(expected.getNotes().size(), actual.getNotes().size());
+        for (int i = 0; i < expected.getNotes().size(); i++) {
+            ModRequestNote expectedNote = expected.getNotes().get(i);
+            ModRequestNote actualNote = actual.getNotes().get(i);
+            assertEquals(expectedNote.getId(), actualNote.getId());
+            assertEquals(expectedNote.getRequestId(), actualNote.getRequestId());
+            assertEquals(expectedNote.getAuthorId(), actualNote.getAuthorId());
+            assertEquals(expectedNote.getAuthorName(), actualNote.getAuthorName());
+            assertEquals(expectedNote.getContent(), actualNote.getContent());
+            assertEquals(expectedNote.getCreatedAt(), actualNote.getCreatedAt());
+        }
+    }
+
+    private static ModRequest closedRequest(int noteCount) {
+        LocalDateTime created = LocalDateTime.of(2025, 6, 1, 12, 30);
+
+        ModRequest request = new ModRequest();
+        request.setId(42);
+        request.setPlayerId(UUID.randomUUID());
+        request.setPlayerName("Steve");
+        request.setDescription("Someone griefed the spawn farm, please roll back the chunks near the portal");
+        request.setStatus(ModRequestStatus.CLOSED);
+        request.setClaimedBy(UUID.randomUUID());
+        request.setClaimedByName("Alex");
+        request.setClosedBy(UUID.randomUUID());
+        request.setClosedByName("Alex");
+        request.setCompletedBy(UUID.randomUUID());
+        request.setCompletedByName("Alex");
+        request.setCreatedAt(created);
+        request.setUpdatedAt(created.plusHours(2));
+        request.setClosedAt(created.plusHours(2));
+        request.setWorldName("world");
+        request.setX(120.5);
+        request.setY(64);
+        request.setZ(-341.2);
+
+        for (int i = 0; i < noteCount; i++) {
+            ModRequestNote note = new ModRequestNote(42, UUID.randomUUID(), "Mod" + i, "Rolled back chunk " + i);
+            note.setId(i + 1);
+            note.setCreatedAt(created.plusMinutes(i));
+            request.getNotes().add(note);
+        }
+        return request;
+    }
+}
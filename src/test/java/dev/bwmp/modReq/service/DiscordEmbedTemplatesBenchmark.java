@@ -0,0 +1,169 @@
+package dev.bwmp.modReq.service;
+
+import static org.mockito.Mockito.mock;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import dev.bwmp.modReq.config.ConfigManager;
+import dev.bwmp.modReq.model.ModRequest;
+import dev.bwmp.modReq.model.ModRequestNote;
+import dev.bwmp.modReq.model.ModRequestStatus;
+
+/**
+ * Compares {@link DiscordEmbedTemplates#render} with the Gson tree builder it
+ * replaced. Not part of the test run; start it with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=dev.bwmp.modReq.service.DiscordEmbedTemplatesBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiscordEmbedTemplatesBenchmark {
+
+    /**
+     * Stands in for the config lookups the tree builder made on every call
+     */
+    private static final Map<String, String> COLORS = Map.of(
+            "discord.opened_embed_color", "#00FF00",
+            "discord.elevated_embed_color", "#0000FF",
+            "discord.done_embed_color", "#FFFF00",
+            "discord.closed_embed_color", "#303030");
+
+    @Param({ "0", "5" })
+    public int noteCount;
+
+    private DiscordEmbedTemplates templates;
+    private ModRequest request;
+    private List<ModRequestNote> notes;
+
+    @Setup
+    public void setUp() {
+        // Every config lookup answers its default
+        ConfigManager config = mock(ConfigManager.class, invocation -> invocation.getArgument(1));
+        templates = new DiscordEmbedTemplates(config);
+
+        request = new ModRequest();
+        request.setId(1234);
+        request.setPlayerId(UUID.randomUUID());
+        request.setPlayerName("Steve");
+        request.setDescription("Someone griefed the \"spawn\" farm, please roll back the chunks near the portal. "
+                + "The chests on the east side were emptied as well.");
+        request.setWorldName("world");
+        request.setX(120.5);
+        request.setY(64);
+        request.setZ(-341.2);
+        request.setStatus(ModRequestStatus.COMPLETED);
+
+        notes = new ArrayList<>();
+        for (int i = 0; i < noteCount; i++) {
+            ModRequestNote note = new ModRequestNote();
+            note.setAuthorName("Mod" + i);
+            note.setContent("Checked the logs, rolled back " + (i + 1) + " chunk(s)");
+            notes.add(note);
+        }
+    }
+
+    @Benchmark
+    public String templates() {
+        return templates.render(request, "completed", "Alex", notes);
+    }
+
+    @Benchmark
+    public String tree() {
+        return renderTree(request, "completed", "Alex", notes);
+    }
+
+    /**
+     * The previous implementation: a JsonObject tree, with the color read and
+     * parsed and the title built on every call
+     */
+    private static String renderTree(ModRequest request, String eventType, String staffMember,
+            List<ModRequestNote> notes) {
+        JsonObject embed = new JsonObject();
+
+        String color = switch (eventType) {
+            case "created" -> COLORS.get("discord.opened_embed_color");
+            case "elevated" -> COLORS.get("discord.elevated_embed_color");
+            case "completed" -> COLORS.get("discord.done_embed_color");
+            default -> COLORS.get("discord.closed_embed_color");
+        };
+        embed.addProperty("color", Integer.parseInt(color.substring(1), 16));
+        embed.addProperty("title", switch (eventType) {
+            case "created" -> "New ModReq Created - #" + request.getId();
+            case "elevated" -> "ModReq Elevated - #" + request.getId();
+            case "completed" -> "ModReq Completed - #" + request.getId();
+            default -> "ModReq Closed - #" + request.getId();
+        });
+        embed.addProperty("description", request.getDescription());
+
+        JsonArray fields = new JsonArray();
+        fields.add(field("Player", request.getPlayerName(), true));
+        fields.add(field("Status", request.getStatus().name(), true));
+        if (request.getWorldName() != null) {
+            fields.add(field("Location", String.format("%s (%d, %d, %d)", request.getWorldName(),
+                    (int) request.getX(), (int) request.getY(), (int) request.getZ()), false));
+        }
+        if (staffMember != null) {
+            fields.add(field(eventType.equals("completed") ? "Completed by" : "Elevated by", staffMember, true));
+        }
+        if (notes != null && !notes.isEmpty()) {
+            StringBuilder notesText = new StringBuilder();
+            for (ModRequestNote note : notes) {
+                if (notesText.length() > 0) {
+                    notesText.append("\n");
+                }
+                notesText.append("**").append(note.getAuthorName()).append("**: ").append(note.getContent());
+            }
+            fields.add(field("Notes", notesText.toString(), false));
+        }
+        embed.add("fields", fields);
+
+        embed.addProperty("timestamp", Instant.now().toString());
+        JsonObject footer = new JsonObject();
+        footer.addProperty("text", "ModReq #" + request.getId());
+        embed.add("footer", footer);
+
+        return embed.toString();
+    }
+
+    private static JsonObject field(String name, String value, boolean inline) {
+        JsonObject field = new JsonObject();
+        field.addProperty("name", name);
+        field.addProperty("value", value);
+        field.addProperty("inline", inline);
+        return field;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DiscordEmbedTemplatesBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
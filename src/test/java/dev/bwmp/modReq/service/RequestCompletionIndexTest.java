@@ -0,0 +1,74 @@
+package dev.bwmp.modReq.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import dev.bwmp.modReq.model.ModRequest;
+
+class RequestCompletionIndexTest {
+
+    private static final UUID STAFF = UUID.randomUUID();
+
+    @Test
+    void completesFromSnapshot() {
+        RequestCompletionIndex index = new RequestCompletionIndex(
+                () -> List.of(request(12, null), request(3, STAFF), request(1, STAFF)));
+        index.rebuild();
+
+        assertEquals(List.of("1", "12"), index.completeOpen("1"));
+        assertEquals(List.of("1", "3"), index.completeClaimed(STAFF, ""));
+        assertEquals(List.of(), index.completeClaimed(UUID.randomUUID(), ""));
+    }
+
+    @Test
+    void completionDoesNotWaitForRunningRebuild() throws Exception {
+        AtomicBoolean block = new AtomicBoolean();
+        CountDownLatch rebuildStarted = new CountDownLatch(1);
+        CountDownLatch releaseRebuild = new CountDownLatch(1);
+
+        RequestCompletionIndex index = new RequestCompletionIndex(() -> {
+            if (block.get()) {
+                rebuildStarted.countDown();
+                try {
+                    releaseRebuild.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return List.of(request(7, STAFF));
+        });
+        index.rebuild();
+
+        block.set(true);
+        index.scheduleRefresh();
+        assertTrue(rebuildStarted.await(5, TimeUnit.SECONDS), "background rebuild did not start");
+
+        try {
+            List<String> open = assertTimeoutPreemptively(Duration.ofMillis(500), () -> index.completeOpen(""));
+            List<String> claimed = assertTimeoutPreemptively(Duration.ofMillis(500),
+                    () -> index.completeClaimed(STAFF, "7"));
+            assertEquals(List.of("7"), open);
+            assertEquals(List.of("7"), claimed);
+        } finally {
+            releaseRebuild.countDown();
+        }
+    }
+
+    private static ModRequest request(int id, UUID claimedBy) {
+        ModRequest request = new ModRequest();
+        request.setId(id);
+        request.setPlayerId(UUID.randomUUID());
+        request.setClaimedBy(claimedBy);
+        return request;
+    }
+}
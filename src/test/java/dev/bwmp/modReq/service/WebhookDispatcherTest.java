@@ -0,0 +1,201 @@
+package dev.bwmp.modReq.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Runs {@link WebhookDispatcher} against a local HTTP server that plays the
+ * part of Discord
+ */
+class WebhookDispatcherTest {
+
+    private record Reply(int status, String body, Map<String, String> headers) {
+    }
+
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final List<Long> arrivals = new CopyOnWriteArrayList<>();
+    private final CountDownLatch firstRequest = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile boolean holdFirstRequest;
+    private volatile Reply reply = new Reply(204, "", Map.of());
+
+    private HttpServer server;
+    private HttpClient httpClient;
+    private WebhookDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+        httpClient = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown(1000);
+        }
+        server.stop(0);
+    }
+
+    @Test
+    void postCompletesWithMessageId() throws Exception {
+        reply = new Reply(200, "{\"id\":\"42\"}", Map.of());
+        dispatcher = dispatcher(3);
+
+        assertEquals("42", dispatcher.post("{\"title\":\"a\"}").get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("POST /webhook?wait=true {\"embeds\":[{\"title\":\"a\"}]}"), requests);
+    }
+
+    @Test
+    void editOfDeletedMessageCompletesWithNull() throws Exception {
+        reply = new Reply(404, "{}", Map.of());
+        dispatcher = dispatcher(3);
+
+        assertNull(dispatcher.edit("7", "{}").get(5, TimeUnit.SECONDS));
+        assertEquals("PATCH /webhook/messages/7 {\"embeds\":[{}]}", requests.get(0));
+    }
+
+    @Test
+    void clientErrorsDoNotOpenCircuit() throws Exception {
+        reply = new Reply(400, "{\"message\":\"Invalid Form Body\"}", Map.of());
+        dispatcher = dispatcher(1);
+
+        for (int i = 0; i < 3; i++) {
+            CompletableFuture<Void> delivery = dispatcher.enqueue("{}");
+            ExecutionException failure = assertThrows(ExecutionException.class,
+                    () -> delivery.get(5, TimeUnit.SECONDS));
+            assertTrue(failure.getCause().getMessage().contains("status: 400"), failure.getCause().getMessage());
+        }
+
+        // A 400 is not retried, and with a threshold of one an open circuit
+        // would have rejected the second and third embed without a request
+        assertEquals(3, requests.size());
+    }
+
+    @Test
+    void shutdownAbandonsRetryAfterWait() throws Exception {
+        reply = new Reply(429, "{}", Map.of("Retry-After", "30"));
+        dispatcher = dispatcher(3);
+
+        CompletableFuture<Void> delivery = dispatcher.enqueue("{}");
+        CompletableFuture<Void> queued = dispatcher.enqueue("{}");
+        assertTrue(firstRequest.await(5, TimeUnit.SECONDS), "no request reached the server");
+
+        long start = System.nanoTime();
+        dispatcher.shutdown(5000);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        dispatcher = null;
+
+        assertTrue(elapsedMillis < 2000, "shutdown took " + elapsedMillis + "ms");
+        assertCancelled(delivery);
+        assertCancelled(queued);
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void queuedEmbedsArePackedTenPerMessage() throws Exception {
+        dispatcher = dispatcher(3);
+
+        // Hold the sender on a first delivery so the next twelve embeds are
+        // all queued before it forms its next batch
+        holdFirstRequest = true;
+        CompletableFuture<Void> warmUp = dispatcher.enqueue("{\"n\":0}");
+        assertTrue(firstRequest.await(5, TimeUnit.SECONDS), "no request reached the server");
+
+        List<CompletableFuture<Void>> deliveries = new ArrayList<>();
+        for (int i = 1; i <= 12; i++) {
+            deliveries.add(dispatcher.enqueue("{\"n\":" + i + "}"));
+        }
+        release.countDown();
+
+        warmUp.get(5, TimeUnit.SECONDS);
+        for (CompletableFuture<Void> delivery : deliveries) {
+            delivery.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(List.of(1, 10, 2), requests.stream().map(WebhookDispatcherTest::embedCount).toList());
+    }
+
+    @Test
+    void exhaustedBucketDelaysNextRequest() throws Exception {
+        reply = new Reply(204, "", Map.of("X-RateLimit-Remaining", "0", "X-RateLimit-Reset-After", "0.2"));
+        dispatcher = dispatcher(3);
+
+        dispatcher.enqueue("{}").get(5, TimeUnit.SECONDS);
+        dispatcher.enqueue("{}").get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, arrivals.size());
+        long gapMillis = TimeUnit.NANOSECONDS.toMillis(arrivals.get(1) - arrivals.get(0));
+        assertTrue(gapMillis >= 190, "second request came " + gapMillis + "ms after the first");
+    }
+
+    private static int embedCount(String request) {
+        String body = request.substring(request.indexOf('{'));
+        return JsonParser.parseString(body).getAsJsonObject().getAsJsonArray("embeds").size();
+    }
+
+    private WebhookDispatcher dispatcher(int failureThreshold) {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/webhook";
+        WebhookRouter.Endpoint endpoint = new WebhookRouter.Endpoint("test", url, 100, 1, failureThreshold,
+                60000);
+        return new WebhookDispatcher(Logger.getLogger("WebhookDispatcherTest"), httpClient, endpoint,
+                Duration.ofSeconds(5));
+    }
+
+    private static void assertCancelled(CompletableFuture<?> future) throws Exception {
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof CancellationException, String.valueOf(failure.getCause()));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        arrivals.add(System.nanoTime());
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        String query = exchange.getRequestURI().getRawQuery();
+        requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath()
+                + (query != null ? "?" + query : "") + " " + body);
+        firstRequest.countDown();
+        if (holdFirstRequest && requests.size() == 1) {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        Reply current = reply;
+        current.headers().forEach(exchange.getResponseHeaders()::add);
+        byte[] response = current.body().getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(current.status(), response.length > 0 ? response.length : -1);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+}